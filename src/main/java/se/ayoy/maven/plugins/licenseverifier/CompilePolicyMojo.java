@@ -0,0 +1,97 @@
+package se.ayoy.maven.plugins.licenseverifier;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoFile;
+import se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo.ExcludedMissingLicenseFile;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Compile the license file and the excluded missing licenses file to snapshots, which the verify goal reads
+ * instead of the files as long as the files are unchanged.
+ */
+@Mojo(name = "compile-policy", threadSafe = true)
+public class CompilePolicyMojo extends LicenseAbstractMojo {
+
+    /**
+     * The file with info on approved licenses, see the verify goal.
+     */
+    @Parameter(property = "verify.licenseFile", defaultValue = "src/licenses/licenses.xml")
+    private String licenseFile;
+
+    /**
+     * The file with dependencies which are allowed to miss license information, see the verify goal.
+     */
+    @Parameter(property = "verify.excludedMissingLicensesFile", defaultValue = "")
+    private String excludedMissingLicensesFile;
+
+    public void setLicenseFile(String licenseFile) {
+        this.licenseFile = licenseFile;
+    }
+
+    public void setExcludedMissingLicensesFile(String excludedMissingLicensesFile) {
+        this.excludedMissingLicensesFile = excludedMissingLicensesFile;
+    }
+
+    /**
+     * Compile the files.
+     * @throws MojoExecutionException if a file could not be read or a snapshot could not be written.
+     */
+    @Override
+    public void execute() throws MojoExecutionException {
+        String licenseFilePath = getFileToCompile(this.licenseFile, "LicenseInfo");
+        if (licenseFilePath != null) {
+            LicenseInfoFile licenseInfoFile = getLicenseInfoFile(licenseFilePath);
+            File file = new File(licenseFilePath);
+            writeSnapshot(PolicySnapshot.getSnapshotFile(file), () -> licenseInfoFile.writeSnapshot(file));
+        }
+
+        String excludedMissingLicensesFilePath =
+            getFileToCompile(this.excludedMissingLicensesFile, "ExcludedMissingLicenses");
+        if (excludedMissingLicensesFilePath != null) {
+            ExcludedMissingLicenseFile excludedMissingLicenseFile =
+                getExcludedMissingLicensesFile(excludedMissingLicensesFilePath);
+            File file = new File(excludedMissingLicensesFilePath);
+            writeSnapshot(PolicySnapshot.getSnapshotFile(file), () -> excludedMissingLicenseFile.writeSnapshot(file));
+        }
+    }
+
+    private String getFileToCompile(String configuredPath, String fileDescription) {
+        if (configuredPath == null || configuredPath.trim().isEmpty()) {
+            return null;
+        }
+
+        String filePath = getPathForRelativeFile(configuredPath, fileDescription);
+        File file = new File(filePath);
+        if (!file.isFile()) {
+            getLog().warn("Not compiling " + filePath + " since it isn't a file.");
+            return null;
+        }
+
+        if (PolicySnapshot.isUpToDate(file)) {
+            getLog().info("Compiled " + filePath + " is up to date.");
+            return null;
+        }
+
+        return filePath;
+    }
+
+    private void writeSnapshot(File snapshot, SnapshotWriter writer) throws MojoExecutionException {
+        try {
+            writer.write();
+            getLog().info("Compiled " + snapshot);
+        } catch (IOException exc) {
+            throw new MojoExecutionException("Could not write " + snapshot, exc);
+        }
+    }
+
+    /**
+     * Writes a snapshot.
+     */
+    private interface SnapshotWriter {
+        void write() throws IOException;
+    }
+}
@@ -6,12 +6,18 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Abstract file used for common methods by LicenceInfoFile and ExcludedMissingLicenseFile.
  */
 public abstract class LicenceFile {
 
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
     /**
      * Either reads a file or reads a resource from a package.
      * @param file           The file to read.
@@ -21,10 +27,22 @@ public abstract class LicenceFile {
      */
     protected InputStream getInputStreamFromFileOrResource(File file, String filePathString)
             throws FileNotFoundException {
+        return openFileOrResource(file, filePathString);
+    }
+
+    /**
+     * Either opens a file or a resource from a package, in the same way as when the file is read.
+     * @param file           The file to read.
+     * @param filePathString The path to read.
+     * @return an input stream to read the configuration file.
+     * @throws FileNotFoundException if the file could not be found.
+     */
+    static InputStream openFileOrResource(File file, String filePathString)
+            throws FileNotFoundException {
 
         if (!file.exists()) {
             // lets try to get it as resource
-            URL url = LicenseVerifierMojo.class.getResource(filePathString);
+            URL url = findResource(filePathString);
             if (url == null) {
                 throw new FileNotFoundException(filePathString);
             }
@@ -37,4 +55,66 @@ public abstract class LicenceFile {
             return new FileInputStream(file);
         }
     }
+
+    /**
+     * Find a configuration file among the resources of the plugin.
+     * @param filePathString The path of the resource.
+     * @return the url of the resource, or null if there is no such resource.
+     */
+    static URL findResource(String filePathString) {
+        return LicenseVerifierMojo.class.getResource(filePathString);
+    }
+
+    /**
+     * Create a streaming reader of a configuration file, positioned at the root element.
+     * A doctype, and thereby any entity, is not allowed.
+     * @param inputStream the content of the file.
+     * @return the reader.
+     * @throws XMLStreamException if the content isn't well formed or has a doctype.
+     */
+    protected static XMLStreamReader createXmlStreamReader(InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.DTD) {
+                reader.close();
+                throw new XMLStreamException("DOCTYPE is not allowed", reader.getLocation());
+            }
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return reader;
+            }
+        }
+
+        reader.close();
+        throw new XMLStreamException("The document has no root element");
+    }
+
+    /**
+     * Skip the element the reader is positioned at, including everything inside it.
+     * @param reader the reader, positioned at the start of the element. Positioned at the end of it afterwards.
+     * @throws XMLStreamException if the content isn't well formed.
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+
+        // Disable doctype and external entities, per Timothy Morgan's 2014 paper:
+        // "XML Schema, DTD, and Entity Attacks"
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
 }
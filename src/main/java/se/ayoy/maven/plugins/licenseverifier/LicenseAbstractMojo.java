@@ -1,6 +1,7 @@
 package se.ayoy.maven.plugins.licenseverifier;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.License;
 import org.apache.maven.plugin.AbstractMojo;
@@ -17,11 +18,12 @@ import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.apache.maven.shared.dependency.graph.traversal.BuildingDependencyNodeVisitor;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.LocalRepositoryManager;
 import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoFile;
 import se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo.ExcludedMissingLicenseFile;
-import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
+import se.ayoy.maven.plugins.licenseverifier.resolver.DependencyTree;
 import se.ayoy.maven.plugins.licenseverifier.resolver.LicenseDependencyNodeVisitor;
-import se.ayoy.maven.plugins.licenseverifier.resolver.TreeNode;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -30,7 +32,10 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 abstract class LicenseAbstractMojo extends AbstractMojo {
     @SuppressWarnings("unused")
@@ -86,22 +91,50 @@ abstract class LicenseAbstractMojo extends AbstractMojo {
      *
      * @return the dependency tree.
      */
-    TreeNode<AyoyArtifact> buildDependencyTree() throws DependencyGraphBuilderException {
+    DependencyTree buildDependencyTree() throws DependencyGraphBuilderException {
+        return buildDependencyTree(null);
+    }
+
+    /**
+     * Build the dependency tree, leaving out the artifacts which aren't included. The filter is applied while
+     * the graph is built, so that what is below an artifact which isn't included is never built or visited.
+     *
+     * @param filter the artifacts to include, or null to include all.
+     * @return the dependency tree.
+     */
+    DependencyTree buildDependencyTree(ArtifactFilter filter) throws DependencyGraphBuilderException {
 
         ProjectBuildingRequest buildingRequest =
             new DefaultProjectBuildingRequest(getSession().getProjectBuildingRequest());
 
         buildingRequest.setProject(getProject());
 
+        // The artifacts the graph builder has already included, which the visitor doesn't need to check again.
+        Set<Artifact> included = Collections.newSetFromMap(new IdentityHashMap<>());
+        ArtifactFilter graphFilter = filter == null ? null : artifact -> {
+            if (!filter.include(artifact)) {
+                return false;
+            }
+
+            included.add(artifact);
+            return true;
+        };
+
         // non-verbose mode use dependency graph component, which gives consistent results with Maven version
         // running
         DependencyNode rootDependencyNode = dependencyGraphBuilder.buildDependencyGraph(
             buildingRequest,
-            null,
+            graphFilter,
             reactorProjects);
 
-        TreeNode<AyoyArtifact> tree = new TreeNode<AyoyArtifact>(null);
-        LicenseDependencyNodeVisitor nodeVisitor = new LicenseDependencyNodeVisitor(tree);
+        // The graph builder doesn't filter the project itself, and not all builders use the filter,
+        // so the visitor only checks the artifacts the graph builder hasn't.
+        DependencyTree tree = new DependencyTree();
+        LicenseDependencyNodeVisitor nodeVisitor = new LicenseDependencyNodeVisitor(
+            tree,
+            filter == null
+                ? null
+                : node -> included.contains(node.getArtifact()) || filter.include(node.getArtifact()));
 
         BuildingDependencyNodeVisitor dependencyNodeVisitor =
             new BuildingDependencyNodeVisitor(nodeVisitor);
@@ -111,6 +144,22 @@ abstract class LicenseAbstractMojo extends AbstractMojo {
         return tree;
     }
 
+    /**
+     * Create a filter including the artifacts which should be verified.
+     * @param excludedArtifacts the list of excluded artifacts.
+     * @return the filter.
+     */
+    ArtifactFilter createInclusionFilter(ExcludedMissingLicenseFile excludedArtifacts) {
+        return artifact -> {
+            if (shouldArtifactBeIncluded(artifact, excludedArtifacts)) {
+                return true;
+            }
+
+            getLog().info("Removing dependency with children: " + artifact);
+            return false;
+        };
+    }
+
     /**
      * Check if an artifact should be included in lists.
      * @param a                 the artifact.
@@ -166,6 +215,65 @@ abstract class LicenseAbstractMojo extends AbstractMojo {
         return null;
     }
 
+    /**
+     * Get the location of the POM of an artifact in the local repository.
+     * @param artifact the artifact.
+     * @return the file, which may not exist yet, or null if there is no local repository.
+     */
+    File getLocalPomFile(Artifact artifact) {
+        return getLocalPomFile(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+    }
+
+    /**
+     * Get the location of the POM of an artifact in the local repository.
+     * @param groupId    the group id.
+     * @param artifactId the artifact id.
+     * @param version    the version.
+     * @return the file, which may not exist yet, or null if there is no local repository.
+     */
+    File getLocalPomFile(String groupId, String artifactId, String version) {
+        RepositorySystemSession repositorySession = getSession().getRepositorySession();
+        if (repositorySession == null || repositorySession.getLocalRepositoryManager() == null) {
+            return null;
+        }
+
+        LocalRepositoryManager localRepositoryManager = repositorySession.getLocalRepositoryManager();
+        String path = localRepositoryManager.getPathForLocalArtifact(
+            new org.eclipse.aether.artifact.DefaultArtifact(groupId, artifactId, "pom", version));
+
+        return new File(localRepositoryManager.getRepository().getBasedir(), path);
+    }
+
+    /**
+     * Check if an artifact is built in the current reactor.
+     * @param artifact the artifact.
+     * @return true if the artifact is one of the projects in the reactor.
+     */
+    boolean isReactorProject(Artifact artifact) {
+        return getReactorProject(artifact) != null;
+    }
+
+    /**
+     * Get the project in the current reactor which builds an artifact.
+     * @param artifact the artifact.
+     * @return the project, or null if the artifact isn't built by the reactor.
+     */
+    MavenProject getReactorProject(Artifact artifact) {
+        if (this.reactorProjects == null) {
+            return null;
+        }
+
+        for (MavenProject reactorProject : this.reactorProjects) {
+            if (reactorProject.getGroupId().equals(artifact.getGroupId())
+                && reactorProject.getArtifactId().equals(artifact.getArtifactId())
+                && reactorProject.getVersion().equals(artifact.getVersion())) {
+                return reactorProject;
+            }
+        }
+
+        return null;
+    }
+
     private static boolean matchesAnyScope(Artifact artifact, String... scopes) {
         if (scopes != null) {
             for (String scope : scopes) {
@@ -1,11 +1,16 @@
 package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
 
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import se.ayoy.maven.plugins.licenseverifier.LicenceFile;
 import se.ayoy.maven.plugins.licenseverifier.util.LogHelper;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Represents a license with information.
@@ -17,33 +22,59 @@ public class LicenseInfo {
 
     private final ArrayList<String> configuredUrls = new ArrayList<String>();
 
-    private LicenseInfoStatusEnum licenseInfoStatus;
+    private final ArrayList<String> configuredSpdxIds = new ArrayList<String>();
+
+    private final ArrayList<String> namePatterns = new ArrayList<String>();
+
+    private final ArrayList<String> urlPatterns = new ArrayList<String>();
+
+    private final LicenseInfoStatusEnum licenseInfoStatus;
+
+    private List<String> nameKeys;
+
+    private List<String> urlKeys;
 
     /**
      * Initialize the instance from XML.
-     * @param node   The XML node to read from.
+     * @param reader The XML reader, positioned at the start of the license element.
+     *               Positioned at the end of it afterwards.
      * @param status The status of the license.
+     * @throws XMLStreamException if the XML isn't well formed.
      */
-    public LicenseInfo(Node node, LicenseInfoStatusEnum status) {
+    public LicenseInfo(XMLStreamReader reader, LicenseInfoStatusEnum status) throws XMLStreamException {
         this.licenseInfoStatus = status;
 
-        if (node == null) {
-            throw new NullPointerException("Node cannot be null");
+        if (reader == null) {
+            throw new NullPointerException("Reader cannot be null");
         }
 
-        NodeList children = node.getChildNodes();
-
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-
-            if (child.getNodeName().equals("name")) {
-                this.name = child.getTextContent();
-            } else if (child.getNodeName().equals("names")) {
-                parseNamesNode(child);
-            } else if (child.getNodeName().equals("urls")) {
-                parseUrlsNode(child);
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "name":
+                    this.name = reader.getElementText();
+                    break;
+                case "names":
+                    parseNamesNode(reader);
+                    break;
+                case "urls":
+                    parseUrlsNode(reader);
+                    break;
+                case "spdxIds":
+                    this.configuredSpdxIds.addAll(parseMultiValueNode(reader, "spdxId"));
+                    break;
+                case "namePattern":
+                    this.namePatterns.add(reader.getElementText().trim());
+                    break;
+                case "urlPattern":
+                    this.urlPatterns.add(reader.getElementText().trim());
+                    break;
+                default:
+                    LicenceFile.skipElement(reader);
+                    break;
             }
         }
+
+        calculateKeys();
     }
 
     /**
@@ -57,6 +88,38 @@ public class LicenseInfo {
         this.configuredNames.add(name);
         this.configuredUrls.add(url);
         this.licenseInfoStatus = infoStatus;
+
+        calculateKeys();
+    }
+
+    /**
+     * Initialize the instance from everything configured for it, when read from a snapshot.
+     * @param name         The name of the license.
+     * @param names        The configured names.
+     * @param urls         The configured urls.
+     * @param spdxIds      The configured SPDX ids.
+     * @param namePatterns The configured name patterns.
+     * @param urlPatterns  The configured url patterns.
+     * @param status       The status of the license.
+     */
+    LicenseInfo(
+        String name,
+        List<String> names,
+        List<String> urls,
+        List<String> spdxIds,
+        List<String> namePatterns,
+        List<String> urlPatterns,
+        LicenseInfoStatusEnum status) {
+
+        this.name = name;
+        this.configuredNames.addAll(names);
+        this.configuredUrls.addAll(urls);
+        this.configuredSpdxIds.addAll(spdxIds);
+        this.namePatterns.addAll(namePatterns);
+        this.urlPatterns.addAll(urlPatterns);
+        this.licenseInfoStatus = status;
+
+        calculateKeys();
     }
 
     @Override
@@ -89,31 +152,78 @@ public class LicenseInfo {
         }
         toReturn.append("]");
 
+        if (!this.configuredSpdxIds.isEmpty()) {
+            toReturn.append(", spdxIds: ");
+            toReturn.append(this.configuredSpdxIds);
+        }
+
+        if (!this.namePatterns.isEmpty()) {
+            toReturn.append(", namePatterns: ");
+            toReturn.append(this.namePatterns);
+        }
+
+        if (!this.urlPatterns.isEmpty()) {
+            toReturn.append(", urlPatterns: ");
+            toReturn.append(this.urlPatterns);
+        }
+
         return toReturn.toString();
     }
 
-    boolean hasLicenceInfo(String name, String url) {
-        for (String configuredName : this.configuredNames) {
-            if (configuredName == null) {
-                continue;
-            }
+    /**
+     * Get the configured names.
+     * @return the names.
+     */
+    List<String> getNames() {
+        return Collections.unmodifiableList(this.configuredNames);
+    }
 
-            if (configuredName.equals(name)) {
-                return true;
-            }
-        }
+    /**
+     * Get the configured urls.
+     * @return the urls.
+     */
+    List<String> getUrls() {
+        return Collections.unmodifiableList(this.configuredUrls);
+    }
 
-        for (String configuredUrl : this.configuredUrls) {
-            if (configuredUrl == null) {
-                continue;
-            }
+    /**
+     * Get the normalized keys of the configured names.
+     * @return the distinct keys, see {@link LicenseKeys#nameKey(String)}.
+     */
+    List<String> getNameKeys() {
+        return this.nameKeys;
+    }
 
-            if (configuredUrl.equals(url)) {
-                return true;
-            }
-        }
+    /**
+     * Get the normalized keys of the configured urls.
+     * @return the distinct keys, see {@link LicenseKeys#urlKey(String)}.
+     */
+    List<String> getUrlKeys() {
+        return this.urlKeys;
+    }
+
+    /**
+     * Get the configured SPDX license ids.
+     * @return the ids.
+     */
+    List<String> getSpdxIds() {
+        return Collections.unmodifiableList(this.configuredSpdxIds);
+    }
 
-        return false;
+    /**
+     * Get the configured patterns of the name, see {@link LicensePatternMatcher}.
+     * @return the patterns.
+     */
+    List<String> getNamePatterns() {
+        return Collections.unmodifiableList(this.namePatterns);
+    }
+
+    /**
+     * Get the configured patterns of the url, see {@link LicensePatternMatcher}.
+     * @return the patterns.
+     */
+    List<String> getUrlPatterns() {
+        return Collections.unmodifiableList(this.urlPatterns);
     }
 
     public String getName() {
@@ -124,26 +234,44 @@ public class LicenseInfo {
         return this.licenseInfoStatus;
     }
 
-    private void parseNamesNode(Node node) {
-        this.configuredNames.addAll(parseMultiValueNode(node, "name"));
+    private void calculateKeys() {
+        Set<String> names = new LinkedHashSet<>();
+        for (String configuredName : this.configuredNames) {
+            String key = LicenseKeys.nameKey(configuredName);
+            if (key != null) {
+                names.add(key);
+            }
+        }
+
+        Set<String> urls = new LinkedHashSet<>();
+        for (String configuredUrl : this.configuredUrls) {
+            String key = LicenseKeys.urlKey(configuredUrl);
+            if (key != null) {
+                urls.add(key);
+            }
+        }
+
+        this.nameKeys = Collections.unmodifiableList(new ArrayList<>(names));
+        this.urlKeys = Collections.unmodifiableList(new ArrayList<>(urls));
     }
 
-    private void parseUrlsNode(Node node) {
-        this.configuredUrls.addAll(parseMultiValueNode(node, "url"));
+    private void parseNamesNode(XMLStreamReader reader) throws XMLStreamException {
+        this.configuredNames.addAll(parseMultiValueNode(reader, "name"));
     }
 
-    private List<String> parseMultiValueNode(Node node, String subNodeName) {
-        NodeList children = node.getChildNodes();
+    private void parseUrlsNode(XMLStreamReader reader) throws XMLStreamException {
+        this.configuredUrls.addAll(parseMultiValueNode(reader, "url"));
+    }
 
+    private List<String> parseMultiValueNode(XMLStreamReader reader, String subNodeName) throws XMLStreamException {
         ArrayList<String> values = new ArrayList<String>();
-        for (int i = 0; i < children.getLength(); i++) {
-            Node dataNode = children.item(i);
-
-            if (!dataNode.getNodeName().equals(subNodeName)) {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!reader.getLocalName().equals(subNodeName)) {
+                LicenceFile.skipElement(reader);
                 continue;
             }
 
-            values.add(dataNode.getTextContent().trim());
+            values.add(reader.getElementText().trim());
         }
 
         return values;
@@ -2,32 +2,74 @@ package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException; // catching unsupported features
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.PatternSyntaxException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import se.ayoy.maven.plugins.licenseverifier.LicenceFile;
+import se.ayoy.maven.plugins.licenseverifier.ParsedFileCache;
+import se.ayoy.maven.plugins.licenseverifier.PolicySnapshot;
 
 /**
  * Represents the file in which licenses are categorized.
  */
 public class LicenseInfoFile extends LicenceFile {
 
-    private ArrayList<LicenseInfo> licenseInfos = new ArrayList<LicenseInfo>();
-    private Log log;
+    /**
+     * The most licenses which are not in the file to remember.
+     */
+    private static final int MAX_UNKNOWN_LICENSES = 10000;
+
+    /**
+     * The policies parsed so far, shared by all modules and builds in the JVM.
+     */
+    private static final ParsedFileCache<LicensePolicy> POLICIES = new ParsedFileCache<>();
+
+    /**
+     * The policies read from snapshots so far, keyed by the snapshot.
+     */
+    private static final ParsedFileCache<LicensePolicy> COMPILED_POLICIES = new ParsedFileCache<>();
+
+    /**
+     * The sections of the file, in order of precedence.
+     */
+    private static final LicenseInfoStatusEnum[] SECTION_ORDER = {
+        LicenseInfoStatusEnum.VALID,
+        LicenseInfoStatusEnum.WARNING,
+        LicenseInfoStatusEnum.FORBIDDEN,
+    };
+
+    /**
+     * The keys of the names and urls looked up so far, the same licenses are looked up for many artifacts.
+     */
+    private final Map<String, String> nameKeys = new ConcurrentHashMap<>();
+
+    private final Map<String, String> urlKeys = new ConcurrentHashMap<>();
 
     /**
-     * Initialize the instance from a file.
+     * The current policy and the lookups remembered for it. Replaced as a whole when a license is added,
+     * so lookups never need a lock.
+     */
+    private volatile PolicyState state;
+
+    private final Log log;
+
+    /**
+     * Initialize the instance from a file. A file which has already been parsed, and hasn't changed since,
+     * isn't parsed again. A snapshot compiled from the current content of the file is read instead of the file.
      * @param filePathString          The path to the file.
      * @param log                     The log instance to be able to log.
      * @throws FileNotFoundException  thrown when the file could not be found.
@@ -46,89 +88,292 @@ public class LicenseInfoFile extends LicenceFile {
                         + filePathString);
 
         File file = new File(filePathString);
-        InputStream inputStream = getInputStreamFromFileOrResource(file, filePathString);
+        LicensePolicy policy = null;
+        if (PolicySnapshot.isUpToDate(file)) {
+            File snapshot = PolicySnapshot.getSnapshotFile(file);
+            try {
+                policy = COMPILED_POLICIES.get(snapshot, snapshot.getPath(), content -> readSnapshot(snapshot));
+                log.info("Using compiled licenses " + snapshot);
+            } catch (FileNotFoundException | MojoExecutionException e) {
+                log.warn("Could not use compiled licenses " + snapshot + ": " + e.getMessage());
+            }
+        }
 
-        log.debug("Reading file " + filePathString);
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        if (policy == null) {
+            policy = POLICIES.get(file, filePathString, content -> parsePolicy(content, filePathString));
+        }
 
-        try {
-            // Disable doctype
-            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        this.state = new PolicyState(policy);
+        log.debug("Found licenses: " + this.state.policy.getLicenseInfos().size());
+    }
+
+    /**
+     * Write the licenses as the snapshot of a file, which is used instead of the file as long as the file is
+     * unchanged.
+     * @param file the file the licenses were read from, the snapshot is {@link PolicySnapshot#getSnapshotFile(File)}.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public void writeSnapshot(File file) throws IOException {
+        LicensePolicySnapshot.write(this.state.policy, file);
+    }
 
-            // Disable external DTDs as well
-            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+    private static LicensePolicy readSnapshot(File snapshot) throws MojoExecutionException {
+        // The snapshot is mapped, rather than parsed from the content read by the cache, to keep it off the heap.
+        try {
+            return LicensePolicySnapshot.read(snapshot);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
 
-            // and these as well, per Timothy Morgan's 2014 paper: "XML Schema, DTD, and Entity Attacks"
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
+    private LicensePolicy parsePolicy(InputStream inputStream, String filePathString)
+            throws MojoExecutionException {
+        log.debug("Parsing licenses");
+        Map<LicenseInfoStatusEnum, List<LicenseInfo>> sections = new EnumMap<>(LicenseInfoStatusEnum.class);
 
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            Document document = builder.parse(inputStream);
+        try {
+            XMLStreamReader reader = createXmlStreamReader(inputStream);
+            try {
+                int depth = 1;
+                while (depth > 0) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.START_ELEMENT) {
+                        LicenseInfoStatusEnum status = getSectionStatus(reader.getLocalName());
+                        if (status == null) {
+                            depth++;
+                            continue;
+                        }
 
-            parseLicenses(document, "valid", LicenseInfoStatusEnum.VALID);
-            parseLicenses(document, "warning", LicenseInfoStatusEnum.WARNING);
-            parseLicenses(document, "forbidden", LicenseInfoStatusEnum.FORBIDDEN);
+                        if (sections.containsKey(status)) {
+                            throw new MojoExecutionException(
+                                "There may be only one tag with name \"" + reader.getLocalName() + "\".");
+                        }
 
-        } catch (ParserConfigurationException e) {
+                        sections.put(status, parseLicenses(reader, status));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        }
 
-        } catch (SAXException e) {
-            throw new MojoExecutionException(e.getMessage(), e);
-        } catch (IOException e) {
-            throw new MojoExecutionException(e.getMessage(), e);
+        // The licenses are ordered by status, whatever the order in the file, since the first match wins.
+        List<LicenseInfo> licenseInfos = new ArrayList<>();
+        for (LicenseInfoStatusEnum status : SECTION_ORDER) {
+            List<LicenseInfo> section = sections.get(status);
+            if (section == null) {
+                log.debug("There are no nodes for \"" + getSectionName(status) + "\".");
+            } else {
+                licenseInfos.addAll(section);
+            }
         }
 
-        log.debug("Found licenses: " + this.licenseInfos.size());
+        try {
+            return new LicensePolicy(licenseInfos, log);
+        } catch (PatternSyntaxException e) {
+            // Every pattern is valid on its own, but they could not be combined.
+            throw new MojoExecutionException("Invalid patterns in " + filePathString + ": " + e.getDescription(), e);
+        }
     }
 
     /**
-     * Search for a licence using name or url.
+     * Search for a licence using name or url. The name and url are matched by their normalized keys,
+     * see {@link LicenseKeys}. Licenses which are not found that way are matched by the configured patterns,
+     * see {@link LicensePatternMatcher}, and then looked up by their SPDX id, if the file refers to SPDX ids.
      * @param name name to search for.
      * @param url  url to search for.
      * @return the found license or null.
      */
     public LicenseInfo getLicenseInfo(String name, String url) {
-        for (LicenseInfo info : this.licenseInfos) {
-            if (info.hasLicenceInfo(name, url)) {
-                return info;
-            }
+        return getLicenseInfo(this.state.policy, name, url);
+    }
+
+    /**
+     * Get the license with a name and url, or a license with status UNKNOWN if it isn't in the file.
+     * A name which isn't in the file but is an SPDX expression, like "Apache-2.0 OR MIT", gives a license with
+     * the status of the expression, see {@link SpdxExpression}.
+     * The result is remembered, so a license used by many artifacts is only searched for once.
+     * Safe to call from any number of threads.
+     * @param name name to search for.
+     * @param url  url to search for.
+     * @return the found license, or the same unknown license every time the same name and url is used.
+     */
+    public LicenseInfo getLicenseInfoOrUnknown(String name, String url) {
+        PolicyState current = this.state;
+        LookupKey key = new LookupKey(name, url);
+        LicenseInfo info = current.foundLicenses.get(key);
+        if (info != null) {
+            return info;
         }
 
-        return null;
+        info = current.unknownLicenses.get(key);
+        if (info != null) {
+            return info;
+        }
+
+        info = getLicenseInfo(current.policy, name, url);
+        if (info == null) {
+            info = evaluateExpression(current.policy, name, url);
+        }
+
+        if (info != null) {
+            current.foundLicenses.put(key, info);
+            return info;
+        }
+
+        if (current.unknownLicenses.size() >= MAX_UNKNOWN_LICENSES) {
+            // Don't remember any more of them.
+            return new LicenseInfo(name, url, LicenseInfoStatusEnum.UNKNOWN);
+        }
+
+        return current.unknownLicenses.computeIfAbsent(
+            key,
+            unknownKey -> new LicenseInfo(name, url, LicenseInfoStatusEnum.UNKNOWN));
+    }
+
+    /**
+     * Get the current policy.
+     * @return the immutable snapshot of the licenses in the file.
+     */
+    public LicensePolicy getPolicy() {
+        return this.state.policy;
     }
 
     /**
      * Add a license to the "database".
      * @param licenseInfo the license to add.
      */
-    public void addLicenseInfo(LicenseInfo licenseInfo) {
-        this.licenseInfos.add(licenseInfo);
+    public synchronized void addLicenseInfo(LicenseInfo licenseInfo) {
+        this.state = new PolicyState(this.state.policy.with(licenseInfo, this.log));
     }
 
-    private void parseLicenses(Document document, String nodeName, LicenseInfoStatusEnum status)
-            throws MojoExecutionException {
-        log.debug("Parsing document for " + nodeName);
-        NodeList approvedList = document.getDocumentElement().getElementsByTagName(nodeName);
-        if (approvedList.getLength() == 0) {
-            log.debug("There are no nodes for \"" + nodeName + "\".");
-            return;
+    private LicenseInfo getLicenseInfo(LicensePolicy policy, String name, String url) {
+        String nameKey = name == null ? null : this.nameKeys.computeIfAbsent(name, LicenseKeys::nameKey);
+        String urlKey = url == null ? null : this.urlKeys.computeIfAbsent(url, LicenseKeys::urlKey);
+        LicenseInfo info = policy.find(nameKey, urlKey);
+        if (info == null) {
+            info = policy.findByPattern(name, url);
+        }
+
+        if (info == null && policy.hasSpdxIds()) {
+            // Not configured by name or url, but perhaps by its SPDX id.
+            info = policy.findBySpdxId(SpdxCatalog.getDefault().findId(name, url));
+        }
+
+        return info;
+    }
+
+    private LicenseInfo evaluateExpression(LicensePolicy policy, String name, String url) {
+        SpdxExpression expression = SpdxExpression.parse(name);
+        if (expression == null) {
+            return null;
+        }
+
+        LicenseInfoStatusEnum status = expression.evaluate(id -> {
+            LicenseInfo info = getLicenseInfo(policy, id, null);
+            return info == null ? LicenseInfoStatusEnum.UNKNOWN : info.getStatus();
+        });
+
+        this.log.debug("The license expression " + expression + " has status " + status);
+        return new LicenseInfo(name, url, status);
+    }
+
+    /**
+     * A policy together with the lookups made in it.
+     */
+    private static final class PolicyState {
+        private final LicensePolicy policy;
+
+        /**
+         * The licenses found so far, by the exact name and url they were looked up with.
+         */
+        private final Map<LookupKey, LicenseInfo> foundLicenses = new ConcurrentHashMap<>();
+
+        /**
+         * The licenses which are not in the policy, by the exact name and url they were looked up with.
+         * Kept apart from the policy so that they never slow down the lookup of the configured licenses.
+         */
+        private final Map<LookupKey, LicenseInfo> unknownLicenses = new ConcurrentHashMap<>();
+
+        private PolicyState(LicensePolicy policy) {
+            this.policy = policy;
         }
+    }
+
+    /**
+     * The exact name and url of a license.
+     */
+    private static final class LookupKey {
+        private final String name;
+
+        private final String url;
 
-        if (approvedList.getLength() != 1) {
-            throw new MojoExecutionException("There may be only one tag with name \"" + nodeName + "\".");
+        private LookupKey(String name, String url) {
+            this.name = name;
+            this.url = url;
         }
 
-        NodeList licensesList = approvedList.item(0).getChildNodes();
-        for (int i = 0; i < licensesList.getLength(); i++) {
-            Node node = licensesList.item(i);
-            if (!node.getNodeName().equals("license")) {
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+
+            LookupKey other = (LookupKey) obj;
+            return Objects.equals(this.name, other.name) && Objects.equals(this.url, other.url);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.name, this.url);
+        }
+    }
 
-                // log.debug("This isn't a license: " + node.getNodeName());
+    private List<LicenseInfo> parseLicenses(XMLStreamReader reader, LicenseInfoStatusEnum status)
+            throws MojoExecutionException, XMLStreamException {
+        log.debug("Parsing document for " + reader.getLocalName());
+        List<LicenseInfo> licenseInfos = new ArrayList<>();
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            if (!reader.getLocalName().equals("license")) {
+                skipElement(reader);
                 continue;
             }
 
-            LicenseInfo info = new LicenseInfo(node, status);
+            LicenseInfo info = new LicenseInfo(reader, status);
+            validatePatterns(info, info.getNamePatterns());
+            validatePatterns(info, info.getUrlPatterns());
             licenseInfos.add(info);
         }
+
+        return licenseInfos;
+    }
+
+    private static LicenseInfoStatusEnum getSectionStatus(String nodeName) {
+        for (LicenseInfoStatusEnum status : SECTION_ORDER) {
+            if (getSectionName(status).equals(nodeName)) {
+                return status;
+            }
+        }
+
+        return null;
+    }
+
+    private static String getSectionName(LicenseInfoStatusEnum status) {
+        return status.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static void validatePatterns(LicenseInfo info, List<String> patterns) throws MojoExecutionException {
+        for (String pattern : patterns) {
+            try {
+                LicensePatternMatcher.validate(pattern);
+            } catch (PatternSyntaxException e) {
+                throw new MojoExecutionException("Invalid pattern \"" + pattern + "\" for license \""
+                    + info.getName() + "\": " + e.getDescription(), e);
+            }
+        }
     }
 }
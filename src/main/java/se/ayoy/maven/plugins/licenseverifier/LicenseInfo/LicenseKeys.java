@@ -0,0 +1,55 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import java.util.Locale;
+
+/**
+ * Normalizes license names and urls to the keys they are matched by, so that variants which only differ by
+ * letter case, whitespace, http or https, a trailing slash or a .txt suffix are treated as the same license.
+ */
+public final class LicenseKeys {
+
+    private LicenseKeys() {
+    }
+
+    /**
+     * Get the key of a license name.
+     * @param name the name, may be null.
+     * @return the key, or null if there is no name.
+     */
+    public static String nameKey(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        String key = name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    /**
+     * Get the key of a license url.
+     * @param url the url, may be null.
+     * @return the key, or null if there is no url.
+     */
+    public static String urlKey(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        String key = url.trim().toLowerCase(Locale.ROOT);
+        if (key.startsWith("https://")) {
+            key = key.substring("https://".length());
+        } else if (key.startsWith("http://")) {
+            key = key.substring("http://".length());
+        }
+
+        while (key.endsWith("/")) {
+            key = key.substring(0, key.length() - 1);
+        }
+
+        if (key.endsWith(".txt")) {
+            key = key.substring(0, key.length() - ".txt".length());
+        }
+
+        return key.isEmpty() ? null : key;
+    }
+}
@@ -0,0 +1,146 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matches a license name or url against all configured patterns at once.
+ * <br>
+ * The patterns are compiled into one regular expression with one alternative per pattern, in the order of the
+ * licenses in the file. The first alternative which matches wins, which gives the valid licenses precedence over
+ * the warning licenses, and those over the forbidden licenses.
+ * <br>
+ * A pattern is a glob, where * matches any text and ? any character, which ignores letter case. A pattern which
+ * starts with "regex:" is a Java regular expression instead, for example "regex:(?i)bsd.*3.clause".
+ * Numbered back references are rejected in regular expressions, since they are combined, and a named group
+ * may only be used by one of them.
+ */
+public final class LicensePatternMatcher {
+
+    /**
+     * The prefix of a pattern which is a regular expression.
+     */
+    public static final String REGEX_PREFIX = "regex:";
+
+    private final Pattern pattern;
+
+    /**
+     * The group in the combined pattern of each alternative.
+     */
+    private final int[] groups;
+
+    /**
+     * The position of the license of each alternative.
+     */
+    private final int[] positions;
+
+    /**
+     * Create a matcher.
+     * @param patterns  the patterns, see the class documentation.
+     * @param positions the position of the license each pattern belongs to.
+     * @throws PatternSyntaxException if the patterns could not be combined, like when two of them use the same
+     *                                named group.
+     */
+    LicensePatternMatcher(List<String> patterns, List<Integer> positions) {
+        this.groups = new int[patterns.size()];
+        this.positions = new int[patterns.size()];
+
+        StringBuilder combined = new StringBuilder();
+        int group = 1;
+        for (int i = 0; i < patterns.size(); i++) {
+            String regex = toRegex(patterns.get(i));
+            if (i > 0) {
+                combined.append('|');
+            }
+            combined.append('(').append(regex).append(')');
+
+            this.groups[i] = group;
+            this.positions[i] = positions.get(i);
+            group += Pattern.compile(regex).matcher("").groupCount() + 1;
+        }
+
+        this.pattern = Pattern.compile(combined.toString());
+    }
+
+    /**
+     * Find the first license with a pattern which matches the whole value.
+     * @param value the name or url, may be null.
+     * @return the position of the license, or -1 if no pattern matches.
+     */
+    int match(String value) {
+        if (value == null) {
+            return -1;
+        }
+
+        Matcher matcher = this.pattern.matcher(value.trim());
+        if (!matcher.matches()) {
+            return -1;
+        }
+
+        for (int i = 0; i < this.groups.length; i++) {
+            if (matcher.start(this.groups[i]) != -1) {
+                return this.positions[i];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Check that a pattern is valid.
+     * @param pattern the pattern.
+     * @throws PatternSyntaxException if it isn't valid, or uses a numbered back reference.
+     */
+    static void validate(String pattern) {
+        String regex = toRegex(pattern);
+        Pattern.compile(regex);
+
+        // The groups are numbered again in the combined pattern, so \1 would refer to another group.
+        int classDepth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\' && i + 1 < regex.length()) {
+                char next = regex.charAt(++i);
+                if (next == 'Q') {
+                    int end = regex.indexOf("\\E", i);
+                    i = end == -1 ? regex.length() : end + 1;
+                } else if (classDepth == 0 && next >= '1' && next <= '9') {
+                    throw new PatternSyntaxException(
+                        "Numbered back references are not supported, use a named group", regex, i - 1);
+                }
+            } else if (c == '[') {
+                classDepth++;
+            } else if (c == ']' && classDepth > 0) {
+                classDepth--;
+            }
+        }
+    }
+
+    private static String toRegex(String pattern) {
+        if (pattern.startsWith(REGEX_PREFIX)) {
+            return pattern.substring(REGEX_PREFIX.length());
+        }
+
+        StringBuilder regex = new StringBuilder("(?i:");
+        StringBuilder literal = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+
+        return regex.append(')').toString();
+    }
+}
@@ -0,0 +1,258 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * An immutable snapshot of the licenses in a license file, indexed for lookup.
+ * <br>
+ * A snapshot never changes once it is created, so it can be shared by any number of threads without locking.
+ * Adding a license gives a new snapshot.
+ */
+public final class LicensePolicy {
+
+    private final List<LicenseInfo> licenseInfos;
+
+    /**
+     * The position in licenseInfos of the first license with a configured name, by the key of the name.
+     */
+    private final Map<String, Integer> nameIndex;
+
+    /**
+     * The position in licenseInfos of the first license with a configured url, by the key of the url.
+     */
+    private final Map<String, Integer> urlIndex;
+
+    /**
+     * The position in licenseInfos of the first license with a configured SPDX id, by the id in lower case.
+     */
+    private final Map<String, Integer> spdxIndex;
+
+    /**
+     * Matches the names against the configured name patterns, or null if there are none.
+     */
+    private final LicensePatternMatcher namePatternMatcher;
+
+    /**
+     * Matches the urls against the configured url patterns, or null if there are none.
+     */
+    private final LicensePatternMatcher urlPatternMatcher;
+
+    /**
+     * Create a snapshot of licenses.
+     * @param licenseInfos the licenses, in the order of the file.
+     * @param log          the log, used to report names, urls and SPDX ids configured for several licenses.
+     */
+    public LicensePolicy(List<LicenseInfo> licenseInfos, Log log) {
+        this(null, licenseInfos, log);
+    }
+
+    /**
+     * Create a snapshot of licenses with indexes which are already built, when read from a compiled policy.
+     * @param licenseInfos the licenses, in the order of the file.
+     * @param nameIndex    the position of the first license with a name, by the key of the name.
+     * @param urlIndex     the position of the first license with a url, by the key of the url.
+     * @param spdxIndex    the position of the first license with an SPDX id, by the id in lower case.
+     */
+    LicensePolicy(
+        List<LicenseInfo> licenseInfos,
+        Map<String, Integer> nameIndex,
+        Map<String, Integer> urlIndex,
+        Map<String, Integer> spdxIndex) {
+
+        this.licenseInfos = Collections.unmodifiableList(new ArrayList<>(licenseInfos));
+        this.nameIndex = Collections.unmodifiableMap(nameIndex);
+        this.urlIndex = Collections.unmodifiableMap(urlIndex);
+        this.spdxIndex = Collections.unmodifiableMap(spdxIndex);
+        this.namePatternMatcher = createPatternMatcher(this.licenseInfos, LicenseInfo::getNamePatterns);
+        this.urlPatternMatcher = createPatternMatcher(this.licenseInfos, LicenseInfo::getUrlPatterns);
+    }
+
+    private LicensePolicy(LicensePolicy base, List<LicenseInfo> addedLicenseInfos, Log log) {
+        List<LicenseInfo> infos = new ArrayList<>();
+        Map<String, Integer> names = new HashMap<>();
+        Map<String, Integer> urls = new HashMap<>();
+        Map<String, Integer> spdxIds = new HashMap<>();
+        if (base != null) {
+            infos.addAll(base.licenseInfos);
+            names.putAll(base.nameIndex);
+            urls.putAll(base.urlIndex);
+            spdxIds.putAll(base.spdxIndex);
+        }
+
+        boolean hasAddedPatterns = false;
+        for (LicenseInfo licenseInfo : addedLicenseInfos) {
+            int position = infos.size();
+            infos.add(licenseInfo);
+
+            for (String nameKey : licenseInfo.getNameKeys()) {
+                index(infos, names, "name", nameKey, position, log);
+            }
+            for (String urlKey : licenseInfo.getUrlKeys()) {
+                index(infos, urls, "url", urlKey, position, log);
+            }
+            for (String spdxId : licenseInfo.getSpdxIds()) {
+                if (SpdxCatalog.getDefault().getId(spdxId) == null) {
+                    log.warn("\"" + spdxId + "\" configured for \"" + licenseInfo.getName()
+                        + "\" is not an SPDX license id.");
+                }
+
+                index(infos, spdxIds, "SPDX id", spdxId.toLowerCase(Locale.ROOT), position, log);
+            }
+
+            hasAddedPatterns |= !licenseInfo.getNamePatterns().isEmpty() || !licenseInfo.getUrlPatterns().isEmpty();
+        }
+
+        this.licenseInfos = Collections.unmodifiableList(infos);
+        this.nameIndex = Collections.unmodifiableMap(names);
+        this.urlIndex = Collections.unmodifiableMap(urls);
+        this.spdxIndex = Collections.unmodifiableMap(spdxIds);
+
+        if (base != null && !hasAddedPatterns) {
+            this.namePatternMatcher = base.namePatternMatcher;
+            this.urlPatternMatcher = base.urlPatternMatcher;
+        } else {
+            this.namePatternMatcher = createPatternMatcher(infos, LicenseInfo::getNamePatterns);
+            this.urlPatternMatcher = createPatternMatcher(infos, LicenseInfo::getUrlPatterns);
+        }
+    }
+
+    /**
+     * Get a snapshot with one more license, which comes after all the others.
+     * @param licenseInfo the license to add.
+     * @param log         the log.
+     * @return the new snapshot, this snapshot is unchanged.
+     */
+    public LicensePolicy with(LicenseInfo licenseInfo, Log log) {
+        return new LicensePolicy(this, Collections.singletonList(licenseInfo), log);
+    }
+
+    /**
+     * Find a license by the keys of its name and url. The license which comes first in the file wins,
+     * as if the licenses were searched in order.
+     * @param nameKey the key of the name, see {@link LicenseKeys#nameKey(String)}, may be null.
+     * @param urlKey  the key of the url, see {@link LicenseKeys#urlKey(String)}, may be null.
+     * @return the license, or null if there is none with the name or url.
+     */
+    public LicenseInfo find(String nameKey, String urlKey) {
+        Integer namePosition = nameKey == null ? null : this.nameIndex.get(nameKey);
+        Integer urlPosition = urlKey == null ? null : this.urlIndex.get(urlKey);
+
+        if (namePosition != null && (urlPosition == null || namePosition <= urlPosition)) {
+            return this.licenseInfos.get(namePosition);
+        }
+        if (urlPosition != null) {
+            return this.licenseInfos.get(urlPosition);
+        }
+
+        return null;
+    }
+
+    /**
+     * Find a license by the patterns of its name and url. The license which comes first in the file wins,
+     * so a valid license wins over a warning license, which wins over a forbidden license.
+     * @param name the name, may be null.
+     * @param url  the url, may be null.
+     * @return the license, or null if no pattern matches.
+     */
+    public LicenseInfo findByPattern(String name, String url) {
+        int namePosition = this.namePatternMatcher == null ? -1 : this.namePatternMatcher.match(name);
+        int urlPosition = this.urlPatternMatcher == null ? -1 : this.urlPatternMatcher.match(url);
+
+        if (namePosition != -1 && (urlPosition == -1 || namePosition <= urlPosition)) {
+            return this.licenseInfos.get(namePosition);
+        }
+        if (urlPosition != -1) {
+            return this.licenseInfos.get(urlPosition);
+        }
+
+        return null;
+    }
+
+    /**
+     * Find a license by its SPDX id.
+     * @param spdxId the SPDX id, may be null.
+     * @return the license, or null if there is none with the id.
+     */
+    public LicenseInfo findBySpdxId(String spdxId) {
+        Integer position = spdxId == null ? null : this.spdxIndex.get(spdxId.toLowerCase(Locale.ROOT));
+        return position == null ? null : this.licenseInfos.get(position);
+    }
+
+    /**
+     * Check if any license refers to SPDX ids.
+     * @return true if there are SPDX ids.
+     */
+    public boolean hasSpdxIds() {
+        return !this.spdxIndex.isEmpty();
+    }
+
+    public List<LicenseInfo> getLicenseInfos() {
+        return this.licenseInfos;
+    }
+
+    Map<String, Integer> getNameIndex() {
+        return this.nameIndex;
+    }
+
+    Map<String, Integer> getUrlIndex() {
+        return this.urlIndex;
+    }
+
+    Map<String, Integer> getSpdxIndex() {
+        return this.spdxIndex;
+    }
+
+    private static LicensePatternMatcher createPatternMatcher(
+        List<LicenseInfo> infos,
+        Function<LicenseInfo, List<String>> getPatterns) {
+
+        List<String> patterns = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int position = 0; position < infos.size(); position++) {
+            for (String pattern : getPatterns.apply(infos.get(position))) {
+                patterns.add(pattern);
+                positions.add(position);
+            }
+        }
+
+        return patterns.isEmpty() ? null : new LicensePatternMatcher(patterns, positions);
+    }
+
+    private static void index(
+        List<LicenseInfo> infos,
+        Map<String, Integer> index,
+        String description,
+        String value,
+        int position,
+        Log log) {
+
+        if (value == null) {
+            return;
+        }
+
+        Integer existing = index.putIfAbsent(value, position);
+        if (existing == null || existing == position) {
+            return;
+        }
+
+        LicenseInfo first = infos.get(existing);
+        LicenseInfo duplicate = infos.get(position);
+        if (first.getStatus() == duplicate.getStatus()) {
+            log.debug("The license " + description + " \"" + value + "\" is configured for both \""
+                + first.getName() + "\" and \"" + duplicate.getName() + "\".");
+        } else {
+            log.warn("The license " + description + " \"" + value + "\" is configured as "
+                + first.getStatus() + " for \"" + first.getName() + "\" and as "
+                + duplicate.getStatus() + " for \"" + duplicate.getName() + "\", using "
+                + first.getStatus() + ".");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import se.ayoy.maven.plugins.licenseverifier.PolicySnapshot;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes and reads a license policy as a snapshot, see {@link PolicySnapshot}. The licenses are followed by
+ * the name, url and SPDX id indexes, so that they don't need to be built again when the snapshot is read.
+ */
+final class LicensePolicySnapshot {
+
+    private LicensePolicySnapshot() {
+    }
+
+    /**
+     * Write a policy as the snapshot of a license file.
+     * @param policy the policy.
+     * @param file   the license file the policy was read from.
+     * @throws IOException if it could not be written.
+     */
+    static void write(LicensePolicy policy, File file) throws IOException {
+        PolicySnapshot.write(file, PolicySnapshot.KIND_LICENSES, output -> {
+            output.writeInt(policy.getLicenseInfos().size());
+            for (LicenseInfo info : policy.getLicenseInfos()) {
+                PolicySnapshot.writeString(output, info.getStatus().name());
+                PolicySnapshot.writeString(output, info.getName());
+                PolicySnapshot.writeStrings(output, info.getNames());
+                PolicySnapshot.writeStrings(output, info.getUrls());
+                PolicySnapshot.writeStrings(output, info.getSpdxIds());
+                PolicySnapshot.writeStrings(output, info.getNamePatterns());
+                PolicySnapshot.writeStrings(output, info.getUrlPatterns());
+            }
+
+            writeIndex(output, policy.getNameIndex());
+            writeIndex(output, policy.getUrlIndex());
+            writeIndex(output, policy.getSpdxIndex());
+        });
+    }
+
+    /**
+     * Read a policy.
+     * @param snapshot the snapshot to read.
+     * @return the policy.
+     * @throws IOException if it could not be read.
+     */
+    static LicensePolicy read(File snapshot) throws IOException {
+        ByteBuffer buffer = PolicySnapshot.map(snapshot, PolicySnapshot.KIND_LICENSES);
+        try {
+            int count = buffer.getInt();
+            List<LicenseInfo> licenseInfos = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                LicenseInfoStatusEnum status = LicenseInfoStatusEnum.valueOf(PolicySnapshot.readString(buffer));
+                licenseInfos.add(new LicenseInfo(
+                    PolicySnapshot.readString(buffer),
+                    PolicySnapshot.readStrings(buffer),
+                    PolicySnapshot.readStrings(buffer),
+                    PolicySnapshot.readStrings(buffer),
+                    PolicySnapshot.readStrings(buffer),
+                    PolicySnapshot.readStrings(buffer),
+                    status));
+            }
+
+            return new LicensePolicy(licenseInfos, readIndex(buffer), readIndex(buffer), readIndex(buffer));
+        } catch (BufferUnderflowException | IllegalArgumentException | NullPointerException exc) {
+            throw new IOException("Corrupt snapshot " + snapshot, exc);
+        }
+    }
+
+    private static void writeIndex(DataOutputStream output, Map<String, Integer> index) throws IOException {
+        output.writeInt(index.size());
+        for (Map.Entry<String, Integer> entry : index.entrySet()) {
+            PolicySnapshot.writeString(output, entry.getKey());
+            output.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<String, Integer> readIndex(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        Map<String, Integer> index = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            index.put(PolicySnapshot.readString(buffer), buffer.getInt());
+        }
+
+        return index;
+    }
+}
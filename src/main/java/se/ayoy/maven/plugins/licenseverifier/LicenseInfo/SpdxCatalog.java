@@ -0,0 +1,247 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The SPDX license list, used to find the SPDX id of the licenses in POMs.
+ * <br>
+ * The list is shipped as a compact binary resource, compiled from src/main/spdx/spdx-licenses.tsv with
+ * {@link #main(String[])}, and is only loaded the first time it is needed.
+ */
+public final class SpdxCatalog {
+
+    /**
+     * The resource holding the compiled catalog.
+     */
+    static final String RESOURCE = "/se/ayoy/maven/plugins/licenseverifier/LicenseInfo/spdx-licenses.bin";
+
+    private static final int MAGIC = 0x41595344;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * The offset of the operating system in the gzip header, which depends on the JDK writing it.
+     */
+    private static final int GZIP_OS_OFFSET = 9;
+
+    /**
+     * The operating system written in the gzip header: unknown, as the catalog doesn't depend on it.
+     */
+    private static final byte GZIP_OS_UNKNOWN = (byte) 255;
+
+    /**
+     * The number of fields on a line with a name or url: the id, the kind of value and the value.
+     */
+    private static final int FIELD_COUNT = 3;
+
+    private final Map<String, String> ids = new HashMap<>();
+
+    private final Map<String, String> nameKeys = new HashMap<>();
+
+    private final Map<String, String> urlKeys = new HashMap<>();
+
+    private SpdxCatalog(String resource) throws IOException {
+        InputStream stream = SpdxCatalog.class.getResourceAsStream(resource);
+        if (stream == null) {
+            throw new FileNotFoundException(resource);
+        }
+
+        try (DataInputStream input = new DataInputStream(new GZIPInputStream(new BufferedInputStream(stream)))) {
+
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported SPDX catalog " + resource);
+            }
+
+            int licenseCount = input.readInt();
+            for (int i = 0; i < licenseCount; i++) {
+                String id = input.readUTF();
+                this.ids.put(id.toLowerCase(Locale.ROOT), id);
+
+                int nameCount = input.readInt();
+                for (int j = 0; j < nameCount; j++) {
+                    this.nameKeys.putIfAbsent(LicenseKeys.nameKey(input.readUTF()), id);
+                }
+
+                int urlCount = input.readInt();
+                for (int j = 0; j < urlCount; j++) {
+                    this.urlKeys.putIfAbsent(LicenseKeys.urlKey(input.readUTF()), id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the catalog shipped with the plugin, loading it the first time.
+     * @return the catalog.
+     */
+    public static SpdxCatalog getDefault() {
+        return DefaultCatalog.INSTANCE;
+    }
+
+    /**
+     * Find the SPDX id of a license. The name may be the id itself, one of the names of the license or
+     * the license may be found by its url.
+     * @param name the name of the license, may be null.
+     * @param url  the url of the license, may be null.
+     * @return the SPDX id, or null if the license isn't in the catalog.
+     */
+    public String findId(String name, String url) {
+        if (name != null) {
+            String id = this.ids.get(name.trim().toLowerCase(Locale.ROOT));
+            if (id == null) {
+                id = this.nameKeys.get(LicenseKeys.nameKey(name));
+            }
+
+            if (id != null) {
+                return id;
+            }
+        }
+
+        if (url != null) {
+            return this.urlKeys.get(LicenseKeys.urlKey(url));
+        }
+
+        return null;
+    }
+
+    /**
+     * Check if an id is an SPDX license id.
+     * @param id the id.
+     * @return the id as written in the SPDX license list, or null if it isn't an SPDX license id.
+     */
+    public String getId(String id) {
+        return id == null ? null : this.ids.get(id.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get the number of licenses in the catalog.
+     * @return the number of licenses.
+     */
+    public int size() {
+        return this.ids.size();
+    }
+
+    /**
+     * Compile the text form of the catalog to the binary form. The same source always gives the same bytes,
+     * whichever JDK compiles it.
+     * @param source the text form, one SPDX id per line optionally followed by a tab, "name" or "url",
+     *               a tab and a value. Lines starting with # are comments.
+     * @param target the stream to write the binary form to.
+     * @throws IOException if the source could not be read or the target could not be written.
+     */
+    public static void compile(BufferedReader source, OutputStream target) throws IOException {
+        Map<String, Entry> licenses = new LinkedHashMap<>();
+        String line;
+        while ((line = source.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\t", -1);
+            Entry entry = licenses.computeIfAbsent(fields[0], id -> new Entry());
+            if (fields.length == 1) {
+                continue;
+            }
+
+            if (fields.length != FIELD_COUNT) {
+                throw new IOException("Invalid line in SPDX catalog: " + line);
+            }
+
+            switch (fields[1]) {
+                case "name":
+                    entry.names.add(fields[2]);
+                    break;
+                case "url":
+                    entry.urls.add(fields[2]);
+                    break;
+                default:
+                    throw new IOException("Invalid line in SPDX catalog: " + line);
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream compressed = new GZIPOutputStream(bytes);
+        DataOutputStream output = new DataOutputStream(compressed);
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(licenses.size());
+        for (Map.Entry<String, Entry> license : licenses.entrySet()) {
+            output.writeUTF(license.getKey());
+            writeValues(output, license.getValue().names);
+            writeValues(output, license.getValue().urls);
+        }
+        output.flush();
+        compressed.finish();
+
+        byte[] binary = bytes.toByteArray();
+        binary[GZIP_OS_OFFSET] = GZIP_OS_UNKNOWN;
+        target.write(binary);
+    }
+
+    private static void writeValues(DataOutputStream output, List<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * Compile the catalog, run when the SPDX license list is updated.
+     * @param args the text form to read and the binary form to write.
+     * @throws IOException if the catalog could not be compiled.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: SpdxCatalog <spdx-licenses.tsv> <spdx-licenses.bin>");
+        }
+
+        try (BufferedReader source = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             OutputStream target = Files.newOutputStream(Paths.get(args[1]))) {
+            compile(source, target);
+        }
+    }
+
+    /**
+     * The names and urls of one license, when compiling.
+     */
+    private static final class Entry {
+        private final List<String> names = new ArrayList<>();
+
+        private final List<String> urls = new ArrayList<>();
+    }
+
+    /**
+     * Loads the default catalog when it is first used.
+     */
+    private static final class DefaultCatalog {
+        private static final SpdxCatalog INSTANCE = load();
+
+        private static SpdxCatalog load() {
+            try {
+                return new SpdxCatalog(RESOURCE);
+            } catch (IOException exc) {
+                throw new UncheckedIOException("Could not load the SPDX catalog.", exc);
+            }
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled SPDX license expression, like "Apache-2.0 OR MIT" or
+ * "GPL-2.0-only WITH Classpath-exception-2.0".
+ * <br>
+ * Each distinct expression is parsed once and kept, so the same expression on many artifacts costs one parse.
+ * OR takes the best status of its licenses and AND the worst, where VALID is better than WARNING, which is better
+ * than UNKNOWN, which is better than FORBIDDEN. AND binds harder than OR, and WITH harder than both.
+ */
+public final class SpdxExpression {
+
+    /**
+     * The most expressions to keep, to limit the memory used if there are many odd license names.
+     */
+    private static final int MAX_CACHED_EXPRESSIONS = 1000;
+
+    private static final Map<String, Optional<SpdxExpression>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * A license id, a LicenseRef or a DocumentRef, optionally followed by + for "or later".
+     */
+    private static final Pattern LICENSE_ID = Pattern.compile("[A-Za-z0-9.\\-]+(:[A-Za-z0-9.\\-]+)?\\+?");
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("\\s+|(?=[()])|(?<=[()])");
+
+    private final Term root;
+
+    private SpdxExpression(Term root) {
+        this.root = root;
+    }
+
+    /**
+     * Get the compiled form of a license name, if it is an SPDX expression.
+     * @param name the license name.
+     * @return the expression, or null if the name isn't an expression with at least one AND, OR or WITH.
+     */
+    public static SpdxExpression parse(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        Optional<SpdxExpression> expression = CACHE.get(name);
+        if (expression == null) {
+            expression = Optional.ofNullable(compile(name));
+            if (CACHE.size() < MAX_CACHED_EXPRESSIONS) {
+                CACHE.putIfAbsent(name, expression);
+            }
+        }
+
+        return expression.orElse(null);
+    }
+
+    /**
+     * Evaluate the expression.
+     * @param statusOfLicense gives the status of a license id, or of a license id and an exception written as
+     *                        "id WITH exception". Gives UNKNOWN for a license which isn't configured.
+     * @return the status of the expression.
+     */
+    public LicenseInfoStatusEnum evaluate(Function<String, LicenseInfoStatusEnum> statusOfLicense) {
+        return this.root.evaluate(statusOfLicense);
+    }
+
+    @Override
+    public String toString() {
+        return this.root.toString();
+    }
+
+    private static SpdxExpression compile(String name) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : TOKEN_SEPARATOR.split(name.trim())) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+
+        if (!tokens.contains("AND") && !tokens.contains("OR") && !tokens.contains("WITH")) {
+            return null;
+        }
+
+        Parser parser = new Parser(tokens);
+        Term root = parser.parseOr();
+        if (root == null || !parser.isAtEnd()) {
+            return null;
+        }
+
+        return new SpdxExpression(root);
+    }
+
+    private static LicenseInfoStatusEnum better(LicenseInfoStatusEnum first, LicenseInfoStatusEnum second) {
+        return rank(first) <= rank(second) ? first : second;
+    }
+
+    private static LicenseInfoStatusEnum worse(LicenseInfoStatusEnum first, LicenseInfoStatusEnum second) {
+        return rank(first) >= rank(second) ? first : second;
+    }
+
+    private static int rank(LicenseInfoStatusEnum status) {
+        switch (status) {
+            case VALID:
+                return 0;
+            case WARNING:
+                return 1;
+            case UNKNOWN:
+                return 2;
+            default:
+                return Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A part of an expression.
+     */
+    private interface Term {
+        LicenseInfoStatusEnum evaluate(Function<String, LicenseInfoStatusEnum> statusOfLicense);
+    }
+
+    /**
+     * A license id, optionally with an exception.
+     */
+    private static final class LicenseTerm implements Term {
+        private final String id;
+
+        private final String exception;
+
+        private LicenseTerm(String id, String exception) {
+            this.id = id;
+            this.exception = exception;
+        }
+
+        @Override
+        public LicenseInfoStatusEnum evaluate(Function<String, LicenseInfoStatusEnum> statusOfLicense) {
+            if (this.exception != null) {
+                // An exception only adds permissions, so the license itself decides unless the combination is
+                // configured.
+                LicenseInfoStatusEnum status = statusOfLicense.apply(this.id + " WITH " + this.exception);
+                if (status != LicenseInfoStatusEnum.UNKNOWN) {
+                    return status;
+                }
+            }
+
+            LicenseInfoStatusEnum status = statusOfLicense.apply(this.id);
+            if (status == LicenseInfoStatusEnum.UNKNOWN && this.id.endsWith("+")) {
+                // "or later" allows the version which is named.
+                status = statusOfLicense.apply(this.id.substring(0, this.id.length() - 1));
+            }
+
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            return this.exception == null ? this.id : this.id + " WITH " + this.exception;
+        }
+    }
+
+    /**
+     * Licenses combined with AND or OR.
+     */
+    private static final class CompoundTerm implements Term {
+        private final boolean conjunction;
+
+        private final List<Term> terms;
+
+        private CompoundTerm(boolean conjunction, List<Term> terms) {
+            this.conjunction = conjunction;
+            this.terms = terms;
+        }
+
+        @Override
+        public LicenseInfoStatusEnum evaluate(Function<String, LicenseInfoStatusEnum> statusOfLicense) {
+            LicenseInfoStatusEnum status = null;
+            for (Term term : this.terms) {
+                LicenseInfoStatusEnum termStatus = term.evaluate(statusOfLicense);
+                if (status == null) {
+                    status = termStatus;
+                } else {
+                    status = this.conjunction ? worse(status, termStatus) : better(status, termStatus);
+                }
+            }
+
+            return status;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder toReturn = new StringBuilder("(");
+            for (int i = 0; i < this.terms.size(); i++) {
+                if (i > 0) {
+                    toReturn.append(this.conjunction ? " AND " : " OR ");
+                }
+
+                toReturn.append(this.terms.get(i));
+            }
+
+            return toReturn.append(")").toString();
+        }
+    }
+
+    /**
+     * Recursive descent parser of the tokens of an expression. Gives null for anything which isn't an expression.
+     */
+    private static final class Parser {
+        private final List<String> tokens;
+
+        private int position;
+
+        private Parser(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean isAtEnd() {
+            return this.position == this.tokens.size();
+        }
+
+        private Term parseOr() {
+            return parseCompound(false);
+        }
+
+        private Term parseCompound(boolean conjunction) {
+            String operator = conjunction ? "AND" : "OR";
+            List<Term> terms = new ArrayList<>();
+            do {
+                Term term = conjunction ? parseWith() : parseCompound(true);
+                if (term == null) {
+                    return null;
+                }
+
+                terms.add(term);
+            } while (accept(operator));
+
+            return terms.size() == 1 ? terms.get(0) : new CompoundTerm(conjunction, terms);
+        }
+
+        private Term parseWith() {
+            if (accept("(")) {
+                Term term = parseOr();
+                return term != null && accept(")") ? term : null;
+            }
+
+            String id = nextLicenseId();
+            if (id == null) {
+                return null;
+            }
+
+            if (!accept("WITH")) {
+                return new LicenseTerm(id, null);
+            }
+
+            String exception = nextLicenseId();
+            return exception == null ? null : new LicenseTerm(id, exception);
+        }
+
+        private String nextLicenseId() {
+            if (isAtEnd()) {
+                return null;
+            }
+
+            String token = this.tokens.get(this.position);
+            if (token.equals("AND") || token.equals("OR") || token.equals("WITH")
+                || !LICENSE_ID.matcher(token).matches()) {
+                return null;
+            }
+
+            this.position++;
+            return token;
+        }
+
+        private boolean accept(String token) {
+            if (!isAtEnd() && this.tokens.get(this.position).equals(token)) {
+                this.position++;
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -7,20 +7,42 @@ import org.apache.maven.plugins.annotations.InstantiationStrategy;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
 import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfo;
 import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoFile;
-import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoStatusEnum;
 import se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo.ExcludedMissingLicenseFile;
 import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
 import se.ayoy.maven.plugins.licenseverifier.model.OverallStatus;
-import se.ayoy.maven.plugins.licenseverifier.resolver.TreeNode;
+import se.ayoy.maven.plugins.licenseverifier.resolver.DependencyTree;
+import se.ayoy.maven.plugins.licenseverifier.resolver.LicenseCache;
+import se.ayoy.maven.plugins.licenseverifier.resolver.LicenseStatusEvaluator;
+import se.ayoy.maven.plugins.licenseverifier.resolver.PersistentLicenseCache;
+import se.ayoy.maven.plugins.licenseverifier.resolver.PomLicenseReader;
+import se.ayoy.maven.plugins.licenseverifier.resolver.ResolutionExecutor;
 import se.ayoy.maven.plugins.licenseverifier.util.LogHelper;
+import se.ayoy.maven.plugins.licenseverifier.util.VerificationFingerprint;
 import se.ayoy.maven.plugins.licenseverifier.visualize.TreeNodeVisualizer;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Validate the licenses against a list of known good.
@@ -60,6 +82,72 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
     @Parameter(property = "verify.requireAllValid", defaultValue = "true")
     private boolean requireAllValid = true;
 
+    /**
+     * The number of threads used when resolving the licenses of the artifacts.
+     * The default of 1 resolves the artifacts one at a time.
+     */
+    @Parameter(property = "verify.resolutionThreads", defaultValue = "1")
+    private int resolutionThreads = 1;
+
+    /**
+     * A file in which the resolved licenses are kept between builds, for example
+     * ${project.build.directory}/license-verifier/cache.bin. An artifact is taken from the file as long as
+     * its POM in the local repository is unchanged. Snapshots are never kept. Disabled by default.
+     */
+    @Parameter(property = "verify.licenseCacheFile")
+    private String licenseCacheFile;
+
+    /**
+     * If the licenses should be read directly from the POM files in the local repository when possible,
+     * instead of building the full project model for every artifact.
+     */
+    @Parameter(property = "verify.streamingPomReader", defaultValue = "true")
+    private boolean streamingPomReader = true;
+
+    /**
+     * If the licenses should be resolved on virtual threads, one per artifact, when running on JDK 21 or later.
+     * The number of concurrent project builds is then limited by resolutionThreads.
+     * Older JDKs use a pool of resolutionThreads platform threads.
+     */
+    @Parameter(property = "verify.virtualThreads", defaultValue = "false")
+    private boolean virtualThreads = false;
+
+    /**
+     * If the verification should stop at the first artifact which fails it. The direct dependencies are
+     * resolved first, every artifact is checked as soon as its licenses are found and the remaining
+     * resolution is cancelled when an artifact fails.
+     */
+    @Parameter(property = "verify.failFast", defaultValue = "false")
+    private boolean failFast = false;
+
+    /**
+     * A file in which the fingerprint of the last successful verification is kept, for example
+     * ${project.build.directory}/license-verifier/verify.fingerprint. The fingerprint covers the dependencies,
+     * the license file, the excluded missing licenses file and the configuration. When it is unchanged the
+     * verification is skipped. Disabled by default.
+     */
+    @Parameter(property = "verify.upToDateFile")
+    private String upToDateFile;
+
+    /**
+     * If the verification should be run even if nothing has changed since the last successful verification.
+     */
+    @Parameter(property = "verify.force", defaultValue = "false")
+    private boolean force = false;
+
+    /**
+     * If the verification should be done in separate passes over the dependency tree, as in earlier versions,
+     * resolving, classifying and summarizing one after the other, with the log output of each pass. Unlike
+     * earlier versions, the license status is determined once per artifact, also for the dependencies of
+     * artifacts without licenses. By default every dependency is handled completely in a single pass.
+     */
+    @Parameter(property = "verify.phasedVerification", defaultValue = "false")
+    private boolean phasedVerification = false;
+
+    @SuppressWarnings("unused")
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     public void setLicenseFile(String licenseFile) {
         this.licenseFile = licenseFile;
     }
@@ -88,6 +176,38 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
         this.requireAllValid = Boolean.parseBoolean(requireAllValid);
     }
 
+    public void setResolutionThreads(String resolutionThreads) {
+        this.resolutionThreads = Integer.parseInt(resolutionThreads);
+    }
+
+    public void setLicenseCacheFile(String licenseCacheFile) {
+        this.licenseCacheFile = licenseCacheFile;
+    }
+
+    public void setStreamingPomReader(String streamingPomReader) {
+        this.streamingPomReader = Boolean.parseBoolean(streamingPomReader);
+    }
+
+    public void setVirtualThreads(String virtualThreads) {
+        this.virtualThreads = Boolean.parseBoolean(virtualThreads);
+    }
+
+    public void setFailFast(String failFast) {
+        this.failFast = Boolean.parseBoolean(failFast);
+    }
+
+    public void setUpToDateFile(String upToDateFile) {
+        this.upToDateFile = upToDateFile;
+    }
+
+    public void setForce(String force) {
+        this.force = Boolean.parseBoolean(force);
+    }
+
+    public void setPhasedVerification(String phasedVerification) {
+        this.phasedVerification = Boolean.parseBoolean(phasedVerification);
+    }
+
     /**
      * Execute the plugin.
      * @throws MojoExecutionException   if anything goes south,
@@ -99,61 +219,66 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
             checkInjects();
 
             getLog().info("Reading configuration");
-            LicenseInfoFile licenseInfoFile = this.getLicenseInfoFile(
-                getPathForRelativeFile(
-                    this.licenseFile,
-                    "LicenseInfo"));
+            String licenseFilePath = getPathForRelativeFile(this.licenseFile, "LicenseInfo");
+            LicenseInfoFile licenseInfoFile = this.getLicenseInfoFile(licenseFilePath);
 
+            String excludedMissingLicensesFilePath =
+                getPathForRelativeFile(this.excludedMissingLicensesFile, "ExcludedMissingLicenses");
             ExcludedMissingLicenseFile excludedMissingLicenseFile =
-                this.getExcludedMissingLicensesFile(
-                    getPathForRelativeFile(
-                        this.excludedMissingLicensesFile,
-                        "ExcludedMissingLicenses"));
+                this.getExcludedMissingLicensesFile(excludedMissingLicensesFilePath);
 
             getLog().info("Parsing dependencies to dependency tree.");
-            TreeNode<AyoyArtifact> tree = buildDependencyTree();
+            DependencyTree tree = buildDependencyTree(createInclusionFilter(excludedMissingLicenseFile));
 
             if (this.getVerbose()) {
-                String dependencyTreeString = TreeNodeVisualizer.visualize(tree, 0);
+                String dependencyTreeString = TreeNodeVisualizer.visualize(tree);
                 logMultiLine(dependencyTreeString, getLog());
             }
 
             getLog().info("");
-            getLog().debug("Removing filtered artifacts from tree.");
-            removeFilteredArtifacts(tree, excludedMissingLicenseFile);
-
-            getLog().info("Parsing for licenses.");
-            ProjectBuildingRequest buildingRequest =
-                new DefaultProjectBuildingRequest(getSession().getProjectBuildingRequest());
-            checkForLicenses(buildingRequest, tree);
-
-            getLog().info("");
-            getLog().info("Determine license status.");
-            determineArtifactStatus(tree, licenseInfoFile);
+            String fingerprint = null;
+            if (this.upToDateFile != null && !this.upToDateFile.isEmpty()) {
+                fingerprint = calculateFingerprint(tree, licenseFilePath, excludedMissingLicensesFilePath);
+                if (isUpToDate(fingerprint)) {
+                    return;
+                }
+            }
 
-            getLog().info("");
-            getLog().info("Determine overall status.");
+            // The status of every artifact is determined once, also when failing fast.
+            LicenseStatusEvaluator statusEvaluator = new LicenseStatusEvaluator(licenseInfoFile);
             OverallStatus status = new OverallStatus();
-            calculateOverallStatus(status, tree);
+            if (this.phasedVerification) {
+                getLog().info("Parsing for licenses.");
+                checkForLicenses(tree, this.failFast ? statusEvaluator : null);
 
-            if (failOnMissing && status.getHasNoLicense()) {
-                throw new MojoExecutionException(
-                    "One or more artifacts is missing license information.");
-            }
-            if (failOnWarning && status.getHasWarningLicense()) {
-                throw new MojoExecutionException(
-                    "One or more artifacts has licenses which is classified as warning.");
-            }
-            if (failOnUnknown && status.getHasUnknownLicense()) {
-                throw new MojoExecutionException(
-                    "One or more artifacts has licenses which is unclassified.");
+                getLog().info("");
+                getLog().info("Determine license status.");
+                determineArtifactStatus(tree, statusEvaluator);
+
+                getLog().info("");
+                getLog().info("Determine overall status.");
+                calculateOverallStatus(status, tree, DependencyTree.ROOT);
+            } else {
+                getLog().info("Verifying licenses.");
+                // When failing fast, resolve up front, breadth first, so that the direct dependencies are checked
+                // before their transitive dependencies.
+                Map<String, List<License>> resolvedLicenses =
+                    this.failFast || this.resolutionThreads > 1 || this.virtualThreads
+                        ? resolveAllLicenses(tree, this.failFast ? statusEvaluator : null)
+                        : null;
+                verifyInOnePass(tree, resolvedLicenses, statusEvaluator, status);
             }
-            if (failOnForbidden && status.getHasForbiddenLicense()) {
-                throw new MojoExecutionException(
-                    "One or more artifacts has licenses which is classified as forbidden.");
+
+            String failure = getFailureMessage(status);
+            if (failure != null) {
+                throw new MojoExecutionException(failure);
             }
 
             getLog().info("All licenses verified.");
+
+            if (fingerprint != null) {
+                storeFingerprint(fingerprint);
+            }
         } catch (MojoExecutionException exc) {
             throw exc;
         } catch (DependencyGraphBuilderException | IOException exc) {
@@ -161,92 +286,537 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
         }
     }
 
-    private void checkForLicenses(ProjectBuildingRequest buildingRequest, TreeNode<AyoyArtifact> tree) {
-        for (TreeNode<AyoyArtifact> childNode : tree) {
-            AyoyArtifact ayoyArtifact = childNode.getData();
+    /**
+     * Find the licenses of all artifacts in the tree.
+     * @param tree                    the dependency tree.
+     * @param failFastEvaluator the license status to check every artifact against as soon as it is resolved,
+     *                          or null to only resolve.
+     * @throws MojoExecutionException if resolution fails, or an artifact fails the fail fast check.
+     */
+    private void checkForLicenses(DependencyTree tree, LicenseStatusEvaluator failFastEvaluator)
+        throws MojoExecutionException {
+
+        Map<String, List<License>> resolvedLicenses = resolveAllLicenses(tree, failFastEvaluator);
+
+        // Apply the result in tree order, to keep the output independent of the number of threads.
+        // The nodes of the same artifact share it, so it only gets its licenses once.
+        Set<AyoyArtifact> applied = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int node : tree.getNodesDepthFirst()) {
+            AyoyArtifact ayoyArtifact = tree.getArtifact(node);
             logInfoIfVerbose("Checking license for " + ayoyArtifact.toString());
 
-            List<License> licenses = getLicenses(ayoyArtifact.getArtifact(), buildingRequest);
-            if (licenses != null) {
+            List<License> licenses = resolvedLicenses.get(ayoyArtifact.getGav());
+            if (licenses == null) {
+                getLog().info("Missing license for " + ayoyArtifact);
+            } else if (applied.add(ayoyArtifact)) {
                 ayoyArtifact.addLicenses(licenses);
+            }
+        }
+    }
+
+    /**
+     * Resolve the licenses of all artifacts in the tree, each groupId:artifactId:version once.
+     * @param tree                    the dependency tree.
+     * @param failFastEvaluator the license status to check every artifact against as soon as it is resolved,
+     *                          or null to only resolve.
+     * @return the licenses by groupId:artifactId:version, null for an artifact without licenses.
+     * @throws MojoExecutionException if resolution fails, or an artifact fails the fail fast check.
+     */
+    private Map<String, List<License>> resolveAllLicenses(
+        DependencyTree tree,
+        LicenseStatusEvaluator failFastEvaluator)
+        throws MojoExecutionException {
+
+        // The same artifact is often found below several parents, but only needs to be resolved once.
+        // They are resolved breadth first, so that the direct dependencies are resolved first.
+        int[] nodes = tree.getNodesBreadthFirst();
+        Map<String, Integer> resolutionIndex = new HashMap<>();
+        int[] nodesToResolve = new int[nodes.length];
+        int resolveCount = 0;
+        for (int node : nodes) {
+            AyoyArtifact ayoyArtifact = tree.getArtifact(node);
+            if (!resolutionIndex.containsKey(ayoyArtifact.getGav())) {
+                resolutionIndex.put(ayoyArtifact.getGav(), resolveCount);
+                nodesToResolve[resolveCount++] = node;
+            }
+        }
+
+        nodesToResolve = Arrays.copyOf(nodesToResolve, resolveCount);
+
+        Resolution resolution = createResolution();
+        List<List<License>> resolvedLicenses;
+        if ((this.resolutionThreads > 1 || this.virtualThreads) && nodesToResolve.length > 1) {
+            resolvedLicenses = resolveLicensesInParallel(tree, nodesToResolve, resolution, failFastEvaluator);
+        } else {
+            resolvedLicenses = resolveLicensesSequentially(tree, nodesToResolve, resolution, failFastEvaluator);
+        }
+
+        logResolution(resolution, nodesToResolve.length, nodes.length);
+
+        Map<String, List<License>> licensesByGav = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : resolutionIndex.entrySet()) {
+            licensesByGav.put(entry.getKey(), resolvedLicenses.get(entry.getValue()));
+        }
+
+        return licensesByGav;
+    }
+
+    /**
+     * Verify the tree in a single pass. The first node of every artifact resolves and classifies the licenses
+     * of the artifact, before the artifact is added to the overall status.
+     * @param tree              the dependency tree.
+     * @param resolvedLicenses  the licenses by groupId:artifactId:version if already resolved, or null to resolve
+     *                          the artifacts as they are found.
+     * @param statusEvaluator   determines the license status of the artifacts.
+     * @param status            the overall status to add the artifacts to.
+     * @throws MojoExecutionException if resolution fails.
+     */
+    private void verifyInOnePass(
+        DependencyTree tree,
+        Map<String, List<License>> resolvedLicenses,
+        LicenseStatusEvaluator statusEvaluator,
+        OverallStatus status)
+        throws MojoExecutionException {
+
+        Resolution resolution = resolvedLicenses == null ? createResolution() : null;
+        ProjectBuildingRequest buildingRequest =
+            new DefaultProjectBuildingRequest(getSession().getProjectBuildingRequest());
+        Set<AyoyArtifact> verifiedArtifacts = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<String> resolvedGavs = new HashSet<>();
+
+        int[] nodes = tree.getNodesDepthFirst();
+        for (int node : nodes) {
+            AyoyArtifact artifact = tree.getArtifact(node);
+            if (verifiedArtifacts.add(artifact)) {
+                List<License> licenses;
+                if (resolvedLicenses != null) {
+                    licenses = resolvedLicenses.get(artifact.getGav());
+                } else {
+                    resolvedGavs.add(artifact.getGav());
+                    licenses = resolveLicenses(artifact, buildingRequest, resolution, null);
+                }
+
+                classifyArtifact(artifact, licenses, statusEvaluator);
+            }
+
+            if (artifact.isLicenseValid(requireAllValid)) {
+                logInfoIfVerbose("VALID      " + artifact);
             } else {
-                getLog().info("Missing license for " + ayoyArtifact);
+                reportInvalidArtifact(artifact, tree, node);
+                status.addInvalidArtifact(artifact);
             }
+        }
+
+        if (resolution != null) {
+            logResolution(resolution, resolvedGavs.size(), nodes.length);
+        }
+    }
+
+    /**
+     * Add the licenses found for an artifact, and their status from the license information file.
+     * @param artifact        the artifact.
+     * @param licenses        the licenses, or null if none were found.
+     * @param statusEvaluator determines the license status of the artifact.
+     */
+    private void classifyArtifact(
+        AyoyArtifact artifact,
+        List<License> licenses,
+        LicenseStatusEvaluator statusEvaluator) {
+
+        if (licenses == null) {
+            getLog().info("Missing license for " + artifact);
+            return;
+        }
+
+        artifact.addLicenses(licenses);
+        List<LicenseInfo> infos = statusEvaluator.getLicenseInfos(artifact);
+        for (int i = 0; i < licenses.size(); i++) {
+            LicenseInfo info = infos.get(i);
+            logInfoIfVerbose("    " + LogHelper.logLicense(licenses.get(i)) + " has status " + info.getStatus());
+            artifact.addLicenseInfo(info);
+        }
+    }
+
+    private Resolution createResolution() {
+        // Artifacts already resolved by other modules in the reactor are taken from the session cache.
+        LicenseCache licenseCache = LicenseCache.forSession(getSession());
+        return new Resolution(
+            licenseCache,
+            this.licenseCacheFile == null || this.licenseCacheFile.isEmpty()
+                ? PersistentLicenseCache.disabled(getLog())
+                : PersistentLicenseCache.load(new File(this.licenseCacheFile), getLog()),
+            this.streamingPomReader
+                ? new PomLicenseReader(this::getLocalPomFile, licenseCache.getParentLicenses())
+                : null);
+    }
+
+    /**
+     * Log how the licenses were resolved and store the persistent cache.
+     * @param resolution      the caches and readers used.
+     * @param uniqueArtifacts the number of artifacts resolved.
+     * @param dependencies    the number of dependencies in the tree.
+     */
+    private void logResolution(Resolution resolution, int uniqueArtifacts, int dependencies) {
+        if (resolution.pomLicenseReader != null) {
+            getLog().info("Read licenses directly from the POM for "
+                + resolution.pomLicenseReader.getRead()
+                + " artifacts, built the project for "
+                + resolution.pomLicenseReader.getUnsupported()
+                + " artifacts, avoided "
+                + resolution.pomLicenseReader.getInheritedFromCache()
+                + " parent resolutions.");
+        }
 
-            checkForLicenses(buildingRequest, childNode);
+        PersistentLicenseCache persistentCache = resolution.persistentCache;
+        if (persistentCache.isEnabled()) {
+            getLog().info("Reused " + persistentCache.getReused()
+                + " and stored " + persistentCache.getStored()
+                + " artifacts in license cache " + this.licenseCacheFile + ".");
+            try {
+                persistentCache.save();
+            } catch (IOException exc) {
+                getLog().warn("Could not write license cache " + this.licenseCacheFile + ": " + exc.getMessage());
+            }
         }
+
+        getLog().info("Resolved licenses for "
+            + uniqueArtifacts
+            + " unique artifacts in "
+            + dependencies
+            + " dependencies, saved "
+            + (dependencies - uniqueArtifacts)
+            + " project builds.");
+        getLog().info("Using " + resolution.cache + ".");
     }
 
-    private void removeFilteredArtifacts(
-        TreeNode<AyoyArtifact> treeNode,
-        ExcludedMissingLicenseFile excludedArtifacts) {
+    private List<List<License>> resolveLicensesSequentially(
+        DependencyTree tree,
+        int[] nodes,
+        Resolution resolution,
+        LicenseStatusEvaluator failFastEvaluator)
+        throws MojoExecutionException {
 
-        for (int i = 0; i < treeNode.getChildren().size(); i++) {
-            TreeNode<AyoyArtifact> childNode = treeNode.getChildren().get(i);
-            if (!shouldArtifactBeIncluded(childNode.getData().getArtifact(), excludedArtifacts)) {
-                getLog().info("Removing dependency with children: "
-                    + childNode.getData().getArtifact().toString());
-                treeNode.removeChild(childNode);
-                i--;
+        ProjectBuildingRequest buildingRequest =
+            new DefaultProjectBuildingRequest(getSession().getProjectBuildingRequest());
+
+        List<List<License>> resolvedLicenses = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            List<License> licenses = resolveLicenses(tree.getArtifact(node), buildingRequest, resolution, null);
+            resolvedLicenses.add(licenses);
+
+            if (failFastEvaluator != null) {
+                failFastIfNotAccepted(tree, node, licenses, failFastEvaluator);
+            }
+        }
+
+        return resolvedLicenses;
+    }
+
+    private List<List<License>> resolveLicensesInParallel(
+        DependencyTree tree,
+        int[] nodes,
+        Resolution resolution,
+        LicenseStatusEvaluator failFastEvaluator)
+        throws MojoExecutionException {
+
+        int threads = Math.max(1, Math.min(this.resolutionThreads, nodes.length));
+        if (this.virtualThreads && !ResolutionExecutor.isVirtualThreadsSupported()) {
+            getLog().info("Virtual threads are not supported by this JDK, using platform threads.");
+        }
+
+        // getLicenses modifies the building request, so every worker needs a copy of its own.
+        ProjectBuildingRequest sessionRequest = getSession().getProjectBuildingRequest();
+        ThreadLocal<ProjectBuildingRequest> buildingRequests =
+            ThreadLocal.withInitial(() -> new DefaultProjectBuildingRequest(sessionRequest));
+
+        List<Future<List<License>>> futures = new ArrayList<>(nodes.length);
+        try (ResolutionExecutor executor = ResolutionExecutor.create(threads, this.virtualThreads)) {
+            if (executor.isVirtual()) {
+                getLog().info("Resolving " + nodes.length
+                    + " artifacts using virtual threads, building at most " + threads + " projects at a time.");
             } else {
-                // Check child
-                removeFilteredArtifacts(childNode, excludedArtifacts);
+                getLog().info("Resolving " + nodes.length + " artifacts using " + threads + " threads.");
+            }
+
+            BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+            for (int node : nodes) {
+                int index = futures.size();
+                AyoyArtifact artifact = tree.getArtifact(node);
+                futures.add(executor.submit(() -> {
+                    try {
+                        return resolveLicenses(artifact, buildingRequests.get(), resolution, executor);
+                    } finally {
+                        completed.add(index);
+                    }
+                }));
+            }
+
+            // Take the results as they are done, so that a failing artifact is found as early as possible.
+            for (int i = 0; i < nodes.length; i++) {
+                int index = completed.take();
+                List<License> licenses = futures.get(index).get();
+
+                if (failFastEvaluator != null) {
+                    failFastIfNotAccepted(tree, nodes[index], licenses, failFastEvaluator);
+                }
+            }
+
+            List<List<License>> resolvedLicenses = new ArrayList<>(nodes.length);
+            for (Future<List<License>> future : futures) {
+                resolvedLicenses.add(future.get());
+            }
+
+            return resolvedLicenses;
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while resolving licenses.", exc);
+        } catch (ExecutionException exc) {
+            throw new MojoExecutionException(exc.getCause().getMessage(), exc.getCause());
+        } finally {
+            for (Future<List<License>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Check an artifact as soon as its licenses are resolved and fail at once if it doesn't pass.
+     * @param tree            the dependency tree.
+     * @param node            the first node of the artifact in the tree.
+     * @param licenses        the resolved licenses, or null if they could not be found.
+     * @param statusEvaluator determines the license status of the artifact.
+     * @throws MojoExecutionException if the artifact fails the verification.
+     */
+    private void failFastIfNotAccepted(
+        DependencyTree tree,
+        int node,
+        List<License> licenses,
+        LicenseStatusEvaluator statusEvaluator)
+        throws MojoExecutionException {
+
+        // Use a copy, the artifacts in the tree get their licenses when everything is resolved.
+        AyoyArtifact artifact = new AyoyArtifact(tree.getArtifact(node).getArtifact(), null);
+        artifact.addLicenses(licenses);
+        for (LicenseInfo info : statusEvaluator.getLicenseInfos(artifact)) {
+            artifact.addLicenseInfo(info);
+        }
+
+        failIfNotAccepted(artifact, tree, node);
+    }
+
+    /**
+     * Fail at once if an artifact, with its license status determined, doesn't pass.
+     * @param artifact the artifact.
+     * @param tree     the dependency tree.
+     * @param node     the node of the artifact in the tree, used for the dependency chain.
+     * @throws MojoExecutionException if the artifact fails the verification.
+     */
+    private void failIfNotAccepted(AyoyArtifact artifact, DependencyTree tree, int node)
+        throws MojoExecutionException {
+
+        if (artifact.isLicenseValid(requireAllValid)) {
+            return;
+        }
+
+        OverallStatus artifactStatus = new OverallStatus();
+        artifactStatus.addInvalidArtifact(artifact);
+
+        String failure = getFailureMessage(artifactStatus);
+        if (failure != null) {
+            getLog().warn("Failing fast, skipping the remaining artifacts.");
+            reportInvalidArtifact(artifact, tree, node);
+            throw new MojoExecutionException(failure);
+        }
+    }
+
+    /**
+     * Resolve the licenses of an artifact, from the session cache, the persistent cache or the POM.
+     * @param artifact        the artifact.
+     * @param buildingRequest the building request to use if the POM needs to be built.
+     * @param resolution      the caches and readers to use.
+     * @param executor        the executor limiting the concurrent project builds, or null if sequential.
+     * @return the licenses, or null if they could not be found.
+     */
+    private List<License> resolveLicenses(
+        AyoyArtifact artifact,
+        ProjectBuildingRequest buildingRequest,
+        Resolution resolution,
+        ResolutionExecutor executor) {
+
+        Artifact mavenArtifact = artifact.getArtifact();
+        boolean isReleasedArtifact = !mavenArtifact.isSnapshot() && !isReactorProject(mavenArtifact);
+
+        return resolution.cache.get(artifact.getGav(), () -> resolution.persistentCache.get(
+            artifact.getGav(),
+            isReleasedArtifact ? getLocalPomFile(mavenArtifact) : null,
+            () -> {
+                if (resolution.pomLicenseReader != null && isReleasedArtifact) {
+                    List<License> licenses = resolution.pomLicenseReader.readLicenses(
+                        mavenArtifact.getGroupId(),
+                        mavenArtifact.getArtifactId(),
+                        mavenArtifact.getVersion());
+                    if (licenses != null) {
+                        return licenses;
+                    }
+                }
+
+                if (executor == null) {
+                    return getLicenses(mavenArtifact, buildingRequest);
+                }
+
+                List<License> licenses = executor.limited(() -> getLicenses(mavenArtifact, buildingRequest));
+                if (Thread.currentThread().isInterrupted()) {
+                    // Cancelled when failing fast, the build may have been cut short so don't cache the result.
+                    throw new CancellationException("Resolution of " + artifact + " was cancelled.");
+                }
+
+                return licenses;
+            }));
+    }
+
+    /**
+     * Calculate the fingerprint of everything the verification depends on.
+     * @param tree                            the dependency tree, after filtering.
+     * @param licenseFilePath                 the path of the license file.
+     * @param excludedMissingLicensesFilePath the path of the excluded missing licenses file, or null.
+     * @return the fingerprint, or null if it could not be calculated.
+     * @throws IOException if a configuration file could not be read.
+     */
+    private String calculateFingerprint(
+        DependencyTree tree,
+        String licenseFilePath,
+        String excludedMissingLicensesFilePath)
+        throws IOException {
+
+        VerificationFingerprint fingerprint = new VerificationFingerprint()
+            .add(this.pluginVersion)
+            .add(Boolean.toString(this.failOnForbidden))
+            .add(Boolean.toString(this.failOnMissing))
+            .add(Boolean.toString(this.failOnWarning))
+            .add(Boolean.toString(this.failOnUnknown))
+            .add(Boolean.toString(this.requireAllValid))
+            // Reading the POMs directly can give other licenses than building the project, like with properties.
+            .add(Boolean.toString(this.streamingPomReader))
+            .add(LicenceFile.openFileOrResource(new File(licenseFilePath), licenseFilePath));
+        if (excludedMissingLicensesFilePath == null) {
+            fingerprint.add((String) null);
+        } else {
+            fingerprint.add(LicenceFile.openFileOrResource(
+                new File(excludedMissingLicensesFilePath),
+                excludedMissingLicensesFilePath));
+        }
+
+        for (int node : tree.getNodesDepthFirst()) {
+            Artifact artifact = tree.getArtifact(node).getArtifact();
+            fingerprint
+                .add(Integer.toString(tree.getDepth(node)))
+                .add(tree.getArtifact(node).getGav())
+                .add(artifact.getScope());
+
+            // The licenses of snapshots and reactor projects can change without a new version.
+            MavenProject reactorProject = getReactorProject(artifact);
+            if (reactorProject != null || artifact.isSnapshot()) {
+                File pomFile = reactorProject != null ? reactorProject.getFile() : getLocalPomFile(artifact);
+                if (pomFile == null || !pomFile.isFile()) {
+                    getLog().info("Can't tell if " + artifact + " has changed, running the verification.");
+                    return null;
+                }
+
+                fingerprint.add(Files.newInputStream(pomFile.toPath()));
             }
         }
+
+        return fingerprint.getValue();
+    }
+
+    /**
+     * Check if the fingerprint is the same as when the verification last succeeded.
+     * @param fingerprint the fingerprint of this build, or null if there is none.
+     * @return true if the verification can be skipped.
+     */
+    private boolean isUpToDate(String fingerprint) {
+        if (fingerprint == null) {
+            return false;
+        }
+
+        if (this.force) {
+            getLog().info("Verification is forced, ignoring the result of the last verification.");
+            return false;
+        }
+
+        String storedFingerprint = VerificationFingerprint.read(new File(this.upToDateFile));
+        if (storedFingerprint == null) {
+            getLog().info("No earlier successful verification found in " + this.upToDateFile + ".");
+            return false;
+        }
+
+        if (!storedFingerprint.equals(fingerprint)) {
+            getLog().info("The dependencies or the configuration have changed since the last successful "
+                + "verification, running the verification.");
+            return false;
+        }
+
+        getLog().info("Skipping license verification, the dependencies and the configuration are unchanged "
+            + "since the last successful verification. Use -Dverify.force=true to verify anyway.");
+        return true;
+    }
+
+    private void storeFingerprint(String fingerprint) {
+        try {
+            VerificationFingerprint.write(new File(this.upToDateFile), fingerprint);
+        } catch (IOException exc) {
+            getLog().warn("Could not write " + this.upToDateFile + ": " + exc.getMessage());
+        }
     }
 
     /**
      * Determine the license status for the individual artifacts from the license information file.
-     * @param treeNode        the individual artifacts.
-     * @param licenseInfoFile the license information file.
-     * @return the updated list of artifacts.
+     * @param tree            the dependency tree, with the individual artifacts.
+     * @param statusEvaluator determines the license status of the artifacts.
      */
     private void determineArtifactStatus(
-        TreeNode<AyoyArtifact> treeNode,
-        LicenseInfoFile licenseInfoFile) {
+        DependencyTree tree,
+        LicenseStatusEvaluator statusEvaluator) {
 
-        for (TreeNode<AyoyArtifact> childNode : treeNode.getChildren()) {
-
-            AyoyArtifact artifactToCheck = childNode.getData();
+        // The nodes of the same artifact share it, so every artifact only gets its status once,
+        // and artifacts with the same groupId:artifactId:version share the evaluation.
+        for (AyoyArtifact artifactToCheck : tree.getArtifacts()) {
             logInfoIfVerbose("Artifact: "
                 + artifactToCheck
                 + " with "
                 + artifactToCheck.getLicenses().size()
                 + " licenses.");
-            for (License license : artifactToCheck.getLicenses()) {
-                logInfoIfVerbose("    Fetching license info: " + LogHelper.logLicense(license));
-                LicenseInfo info = licenseInfoFile.getLicenseInfo(license.getName(), license.getUrl());
-
-                if (info == null) {
-                    // License does not exist in file.
-                    info = new LicenseInfo(
-                        license.getName(),
-                        license.getUrl(),
-                        LicenseInfoStatusEnum.UNKNOWN);
-                    licenseInfoFile.addLicenseInfo(info);
-                }
-
+            List<License> licenses = artifactToCheck.getLicenses();
+            List<LicenseInfo> infos = statusEvaluator.getLicenseInfos(artifactToCheck);
+            for (int i = 0; i < licenses.size(); i++) {
+                LicenseInfo info = infos.get(i);
+                logInfoIfVerbose("    Fetching license info: " + LogHelper.logLicense(licenses.get(i)));
                 logInfoIfVerbose("    Got licenseInfo with status : " + info.getStatus());
                 artifactToCheck.addLicenseInfo(info);
-
-                determineArtifactStatus(childNode, licenseInfoFile);
             }
         }
+
+        logInfoIfVerbose("Determined the license status of "
+            + statusEvaluator.getEvaluations()
+            + " distinct artifacts.");
     }
 
     private void calculateOverallStatus(
         OverallStatus status,
-        TreeNode<AyoyArtifact> node)
+        DependencyTree tree,
+        int node)
         throws MojoExecutionException {
 
-        if (node.getData() != null) {
-            logInfoIfVerbose("Checking overall status with " + node.getData().toString());
+        if (tree.getArtifact(node) != null) {
+            logInfoIfVerbose("Checking overall status with " + tree.getArtifact(node).toString());
         }
-        for (TreeNode<AyoyArtifact> childNode : node.getChildren()) {
-            AyoyArtifact artifact = childNode.getData();
+        for (int childNode = tree.getFirstChild(node);
+             childNode != DependencyTree.NONE;
+             childNode = tree.getNextSibling(childNode)) {
+            AyoyArtifact artifact = tree.getArtifact(childNode);
 
             // And recursive
-            calculateOverallStatus(status, childNode);
+            calculateOverallStatus(status, tree, childNode);
 
             // Determine this license.
             if (artifact.isLicenseValid(requireAllValid)) {
@@ -258,89 +828,96 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
                 continue;
             }
 
-            boolean artifactHasNoLicense = true;
-            boolean artifactHasForbiddenLicense = false;
-            boolean artifactHasWarningLicense = false;
-            boolean artifactHasUnknownLicense = false;
-
-            for (LicenseInfo info : artifact.getLicenseInfos()) {
-                artifactHasNoLicense = false;
-
-                switch (info.getStatus()) {
-                    case VALID:
-                        logInfoIfVerbose("VALID          " + artifact);
-                        logInfoIfVerbose("               license:  " + info);
-                        logInfoIfVerbose("               dependency chain: " + getChainString(childNode));
-                        break;
-                    case WARNING:
-                        artifactHasWarningLicense = true;
-                        getLog().warn("WARNING   " + artifact);
-                        getLog().warn("          license:  " + info);
-                        getLog().warn("          dependency chain: " + getChainString(childNode));
-                        break;
-                    case FORBIDDEN:
-                        artifactHasForbiddenLicense = true;
-                        getLog().warn("FORBIDDEN " + artifact);
-                        getLog().warn("          license:  " + info);
-                        getLog().warn("          dependency chain: " + getChainString(childNode));
-                        break;
-                    case UNKNOWN:
-                        artifactHasUnknownLicense = true;
-                        getLog().warn("UNKNOWN   " + artifact);
-                        getLog().warn("          license:  " + info);
-                        getLog().warn("          dependency chain: " + getChainString(childNode));
-                        break;
-                    default:
-                        throw new MojoExecutionException("Unknown license status for " + artifact);
-                }
-            }
+            reportInvalidArtifact(artifact, tree, childNode);
+            status.addInvalidArtifact(artifact);
+        }
+    }
 
-            if (artifactHasNoLicense) {
-                getLog().warn("MISSING   " + artifact);
-                status.setHasNoLicense(true);
-            }
+    /**
+     * Log why an artifact isn't valid.
+     * @param artifact the artifact.
+     * @param tree     the dependency tree.
+     * @param node     the node of the artifact in the tree, used for the dependency chain.
+     * @throws MojoExecutionException if a license has an unknown status.
+     */
+    private void reportInvalidArtifact(AyoyArtifact artifact, DependencyTree tree, int node)
+        throws MojoExecutionException {
 
-            if (artifactHasForbiddenLicense) {
-                status.setHasForbiddenLicense(true);
+        // The artifact is invalid, so the chain is logged for at least one of its licenses.
+        String chain = artifact.getLicenseInfos().isEmpty() ? null : getChainString(tree, node);
+        for (LicenseInfo info : artifact.getLicenseInfos()) {
+            switch (info.getStatus()) {
+                case VALID:
+                    logInfoIfVerbose("VALID          " + artifact);
+                    logInfoIfVerbose("               license:  " + info);
+                    logInfoIfVerbose("               dependency chain: " + chain);
+                    break;
+                case WARNING:
+                    getLog().warn("WARNING   " + artifact);
+                    getLog().warn("          license:  " + info);
+                    getLog().warn("          dependency chain: " + chain);
+                    break;
+                case FORBIDDEN:
+                    getLog().warn("FORBIDDEN " + artifact);
+                    getLog().warn("          license:  " + info);
+                    getLog().warn("          dependency chain: " + chain);
+                    break;
+                case UNKNOWN:
+                    getLog().warn("UNKNOWN   " + artifact);
+                    getLog().warn("          license:  " + info);
+                    getLog().warn("          dependency chain: " + chain);
+                    break;
+                default:
+                    throw new MojoExecutionException("Unknown license status for " + artifact);
             }
+        }
 
-            if (artifactHasWarningLicense) {
-                status.setHasWarningLicense(true);
-            }
+        if (artifact.getLicenseInfos().isEmpty()) {
+            getLog().warn("MISSING   " + artifact);
+        }
+    }
 
-            if (artifactHasUnknownLicense) {
-                status.setHasUnknownLicense(true);
-            }
+    /**
+     * Get the message to fail the build with, according to the configuration.
+     * @param status the status of the artifacts.
+     * @return the message, or null if the build should not fail.
+     */
+    private String getFailureMessage(OverallStatus status) {
+        if (failOnMissing && status.getHasNoLicense()) {
+            return "One or more artifacts is missing license information.";
+        }
+        if (failOnWarning && status.getHasWarningLicense()) {
+            return "One or more artifacts has licenses which is classified as warning.";
         }
+        if (failOnUnknown && status.getHasUnknownLicense()) {
+            return "One or more artifacts has licenses which is unclassified.";
+        }
+        if (failOnForbidden && status.getHasForbiddenLicense()) {
+            return "One or more artifacts has licenses which is classified as forbidden.";
+        }
+
+        return null;
     }
 
     /**
      * Creates a string representing the dependency chain to this artifact.
+     * @param tree the dependency tree.
      * @param node the node to create the chain string from.
      * @return a string representing the dependency chain to this artifact.
      */
-    public String getChainString(TreeNode<AyoyArtifact> node) {
-        if (node.getData() == null) {
+    public String getChainString(DependencyTree tree, int node) {
+        if (tree.getArtifact(node) == null) {
             return "";
         }
 
         StringBuilder toReturn = new StringBuilder();
-
-        TreeNode<AyoyArtifact> currentNode = node;
-
-        while (currentNode.getData() != null) {
-            Artifact artifact = currentNode.getData().getArtifact();
-            String artifactInfo = " -> "
-                + artifact.getGroupId()
-                + ":"
-                + artifact.getArtifactId();
-            toReturn.insert(0, artifactInfo);
-
-            currentNode = currentNode.getParent();
+        try {
+            TreeNodeVisualizer.writeChain(tree, node, toReturn);
+        } catch (IOException exc) {
+            // A StringBuilder doesn't throw.
+            throw new UncheckedIOException(exc);
         }
 
-        toReturn.insert(0, "pom");
-
         return toReturn.toString();
     }
 
@@ -352,4 +929,25 @@ public class LicenseVerifierMojo extends LicenseAbstractMojo {
             throw new NullPointerException("licenseFile cannot be null. Check your settings.");
         }
     }
+
+    /**
+     * The caches and readers used when resolving licenses in one execution.
+     */
+    private static final class Resolution {
+        private final LicenseCache cache;
+
+        private final PersistentLicenseCache persistentCache;
+
+        private final PomLicenseReader pomLicenseReader;
+
+        private Resolution(
+            LicenseCache cache,
+            PersistentLicenseCache persistentCache,
+            PomLicenseReader pomLicenseReader) {
+
+            this.cache = cache;
+            this.persistentCache = persistentCache;
+            this.pomLicenseReader = pomLicenseReader;
+        }
+    }
 }
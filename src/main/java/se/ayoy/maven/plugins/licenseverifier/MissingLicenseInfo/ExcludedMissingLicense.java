@@ -1,7 +1,10 @@
 package se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo;
 
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import se.ayoy.maven.plugins.licenseverifier.LicenceFile;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Represents an exclusion for a missing license.
@@ -12,35 +15,46 @@ public class ExcludedMissingLicense {
     private String version;
 
     /**
-     * Initialize the instance from an XML node.
-     * @param node the node that holds the information.
+     * Initialize the instance from XML.
+     * @param reader the XML reader, positioned at the start of the dependency element.
+     *               Positioned at the end of it afterwards.
+     * @throws XMLStreamException if the XML isn't well formed.
      */
-    public ExcludedMissingLicense(Node node) {
-        if (node == null) {
-            throw new NullPointerException("Node cannot be null");
+    public ExcludedMissingLicense(XMLStreamReader reader) throws XMLStreamException {
+        if (reader == null) {
+            throw new NullPointerException("Reader cannot be null");
         }
 
-        NodeList children = node.getChildNodes();
-
-        for (int i = 0; i < children.getLength(); i++) {
-            Node child = children.item(i);
-
-            switch (child.getNodeName()) {
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            switch (reader.getLocalName()) {
                 case "groupId":
-                    this.groupId = child.getTextContent();
+                    this.groupId = reader.getElementText();
                     break;
                 case "artifactId":
-                    this.artifactId = child.getTextContent();
+                    this.artifactId = reader.getElementText();
                     break;
                 case "version":
-                    this.version = child.getTextContent();
+                    this.version = reader.getElementText();
                     break;
                 default:
+                    LicenceFile.skipElement(reader);
                     break;
             }
         }
     }
 
+    /**
+     * Initialize the instance from its coordinates.
+     * @param groupId    the groupId, may end with ".*".
+     * @param artifactId the artifactId.
+     * @param version    the version or version range.
+     */
+    ExcludedMissingLicense(String groupId, String artifactId, String version) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+    }
+
     public String getGroupId() {
         return this.groupId;
     }
@@ -1,33 +1,42 @@
 package se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo;
 
 import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.logging.Log;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 import se.ayoy.maven.plugins.licenseverifier.LicenceFile;
+import se.ayoy.maven.plugins.licenseverifier.ParsedFileCache;
+import se.ayoy.maven.plugins.licenseverifier.PolicySnapshot;
 import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 
 /**
  * Parses the file for exclusions of missing license information.
  */
 public class ExcludedMissingLicenseFile extends LicenceFile {
-    private ArrayList<ExcludedMissingLicense> missingInfos = new ArrayList<ExcludedMissingLicense>();
+    /**
+     * The exclusions parsed so far, shared by all modules and builds in the JVM.
+     */
+    private static final ParsedFileCache<ExcludedMissingLicenseIndex> INDEXES = new ParsedFileCache<>();
+
+    /**
+     * The exclusions read from snapshots so far, keyed by the snapshot.
+     */
+    private static final ParsedFileCache<ExcludedMissingLicenseIndex> COMPILED_INDEXES = new ParsedFileCache<>();
+
+    private ExcludedMissingLicenseIndex index = new ExcludedMissingLicenseIndex();
     private Log log;
 
     /**
-     * Initialize the instance from a file.
+     * Initialize the instance from a file. A snapshot compiled from the current content of the file is read
+     * instead of the file.
      * @param filePathString          The path to the file.
      * @param log                     The log instance to be able to log.
      * @throws FileNotFoundException  thrown when the file could not be found.
@@ -45,39 +54,74 @@ public class ExcludedMissingLicenseFile extends LicenceFile {
             "Path to file with dependencies to ignore (without licenses) is "
             + filePathString);
         File file = new File(filePathString);
-        InputStream inputStream = this.getInputStreamFromFileOrResource(file, filePathString);
+        ExcludedMissingLicenseIndex compiledIndex = null;
+        if (PolicySnapshot.isUpToDate(file)) {
+            File snapshot = PolicySnapshot.getSnapshotFile(file);
+            try {
+                compiledIndex = COMPILED_INDEXES.get(
+                    snapshot, snapshot.getPath(), content -> readSnapshot(snapshot));
+                log.info("Using compiled dependencies to ignore " + snapshot);
+            } catch (FileNotFoundException | MojoExecutionException e) {
+                log.warn("Could not use compiled dependencies to ignore " + snapshot + ": " + e.getMessage());
+            }
+        }
 
-        log.debug("Reading file " + filePathString);
-        DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
+        this.index = compiledIndex != null ? compiledIndex : INDEXES.get(file, filePathString, this::parseIndex);
 
-        try {
-            // Disable doctype
-            dbf.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
-
-            // Disable external DTDs as well
-            dbf.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        log.debug(
+            "Found approved dependencies with missing license information: "
+            + this.index.size());
+    }
 
-            // and these as well, per Timothy Morgan's 2014 paper: "XML Schema, DTD, and Entity Attacks"
-            dbf.setXIncludeAware(false);
-            dbf.setExpandEntityReferences(false);
+    private ExcludedMissingLicenseIndex parseIndex(InputStream inputStream) throws MojoExecutionException {
+        log.debug("Parsing dependencies with missing license information");
+        ExcludedMissingLicenseIndex parsedIndex = new ExcludedMissingLicenseIndex();
 
-            DocumentBuilder builder = dbf.newDocumentBuilder();
-            Document document = builder.parse(inputStream);
+        try {
+            XMLStreamReader reader = createXmlStreamReader(inputStream);
+            try {
+                int depth = 1;
+                while (depth > 0) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) {
+                        depth--;
+                    } else if (event == XMLStreamConstants.START_ELEMENT) {
+                        if (reader.getLocalName().equals("dependency")) {
+                            addInfo(new ExcludedMissingLicense(reader), parsedIndex);
+                        } else {
+                            depth++;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
 
-            parseInfos(document);
+        parsedIndex.build();
+        return parsedIndex;
+    }
 
-        } catch (ParserConfigurationException e) {
-            throw new MojoExecutionException(e.getMessage(), e);
+    /**
+     * Write the exclusions as the snapshot of a file, which is used instead of the file as long as the file is
+     * unchanged.
+     * @param file the file the exclusions were read from, the snapshot is
+     *             {@link PolicySnapshot#getSnapshotFile(File)}.
+     * @throws IOException if the snapshot could not be written.
+     */
+    public void writeSnapshot(File file) throws IOException {
+        ExcludedMissingLicenseSnapshot.write(this.index, file);
+    }
 
-        } catch (SAXException e) {
-            throw new MojoExecutionException(e.getMessage(), e);
+    private static ExcludedMissingLicenseIndex readSnapshot(File snapshot) throws MojoExecutionException {
+        // The snapshot is mapped, rather than parsed from the content read by the cache, to keep it off the heap.
+        try {
+            return ExcludedMissingLicenseSnapshot.read(snapshot);
         } catch (IOException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
-
-        log.debug(
-            "Found approved dependencies with missing license information: "
-            + this.missingInfos.size());
     }
 
     /**
@@ -91,43 +135,33 @@ public class ExcludedMissingLicenseFile extends LicenceFile {
 
     /**
      * Check if a certain artifact with missing license information is excluded.
+     * The groupId of an exclusion may end with ".*" to match all groupIds below it, and the version may be
+     * a version range like "[1.0,2.0)".
      * @param artifact the artifact.
      * @return true if excluded.
      */
     public boolean isExcluded(Artifact artifact) {
-        for (ExcludedMissingLicense missingInfo : this.missingInfos) {
-
-            if (missingInfo.getGroupId().equals(artifact.getGroupId())
-                    && missingInfo.getArtifactId().equals(artifact.getArtifactId())
-                    && missingInfo.getVersion().equals(artifact.getVersion())) {
-                return true;
-            }
-        }
-        return false;
+        return this.index.isExcluded(artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
     }
 
-    private void parseInfos(Document document) {
-        String nodeName = "dependency";
-        log.debug("Parsing document for " + nodeName);
-        NodeList licensesList = document.getDocumentElement().getElementsByTagName(nodeName);
-        for (int i = 0; i < licensesList.getLength(); i++) {
-            Node node = licensesList.item(i);
-            if (!node.getNodeName().equals("dependency")) {
-
-                // log.debug("This isn't a dependency: " + node.getNodeName());
-                continue;
-            }
-
-            ExcludedMissingLicense info = new ExcludedMissingLicense(node);
-
-            if (info.getGroupId() == null) {
-                this.log.warn("Found entry in file for excluded missing licenses with missing groupId");
-            } else if (info.getArtifactId() == null) {
-                this.log.warn("Found entry in file for excluded missing licenses with missing artifactId");
-            } else if (info.getVersion() == null) {
-                this.log.warn("Found entry in file for excluded missing licenses with missing version");
-            } else {
-                missingInfos.add(info);
+    private void addInfo(ExcludedMissingLicense info, ExcludedMissingLicenseIndex parsedIndex)
+        throws MojoExecutionException {
+        if (info.getGroupId() == null) {
+            this.log.warn("Found entry in file for excluded missing licenses with missing groupId");
+        } else if (info.getArtifactId() == null) {
+            this.log.warn("Found entry in file for excluded missing licenses with missing artifactId");
+        } else if (info.getVersion() == null) {
+            this.log.warn("Found entry in file for excluded missing licenses with missing version");
+        } else if (ExcludedMissingLicenseIndex.ANY_ARTIFACT_ID.equals(info.getArtifactId().trim())
+            && !info.getGroupId().trim().endsWith(".*")) {
+            this.log.warn("Found entry in file for excluded missing licenses with artifactId * "
+                + "but without a groupId wildcard: " + info.getGroupId());
+        } else {
+            try {
+                parsedIndex.add(info);
+            } catch (InvalidVersionSpecificationException e) {
+                throw new MojoExecutionException("Invalid version range in file for excluded missing licenses: "
+                    + info.getGroupId() + ":" + info.getArtifactId() + ":" + info.getVersion(), e);
             }
         }
     }
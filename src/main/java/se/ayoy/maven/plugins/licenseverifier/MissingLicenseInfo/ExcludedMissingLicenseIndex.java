@@ -0,0 +1,329 @@
+package se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import org.apache.maven.artifact.versioning.Restriction;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The exclusions for missing licenses, indexed so that checking an artifact doesn't depend on the number of
+ * exclusions.
+ * <br>
+ * Exact coordinates are kept in a hash set. Version ranges, like "[1.0,2.0)", are kept as sorted intervals per
+ * groupId and artifactId and searched with binary search. A groupId ending with ".*", like "com.example.*", matches
+ * all groupIds below it and is kept in a trie of groupId segments.
+ */
+final class ExcludedMissingLicenseIndex {
+
+    /**
+     * The artifactId matching any artifact, only allowed together with a groupId wildcard.
+     */
+    static final String ANY_ARTIFACT_ID = "*";
+
+    private static final String GROUP_WILDCARD_SUFFIX = ".*";
+
+    private final Set<String> exactCoordinates = new HashSet<>();
+
+    private final Map<String, VersionIntervals> rangesByGroupAndArtifact = new HashMap<>();
+
+    private final GroupNode wildcardGroups = new GroupNode();
+
+    /**
+     * The exclusions with a groupId wildcard or a version range, kept to be able to write a snapshot.
+     */
+    private final List<ExcludedMissingLicense> patternExclusions = new ArrayList<>();
+
+    /**
+     * The exact coordinates read from a snapshot, or null.
+     */
+    private ExcludedMissingLicenseSnapshot.CoordinateTable compiledCoordinates;
+
+    private int size;
+
+    /**
+     * Add an exclusion.
+     * @param exclusion the exclusion.
+     * @throws InvalidVersionSpecificationException if the version is a range which can't be parsed.
+     */
+    void add(ExcludedMissingLicense exclusion) throws InvalidVersionSpecificationException {
+        String groupId = exclusion.getGroupId().trim();
+        String artifactId = exclusion.getArtifactId().trim();
+        String version = exclusion.getVersion().trim();
+        this.size++;
+
+        if (groupId.endsWith(GROUP_WILDCARD_SUFFIX) || isRange(version)) {
+            this.patternExclusions.add(exclusion);
+        }
+
+        if (groupId.endsWith(GROUP_WILDCARD_SUFFIX)) {
+            GroupNode node = this.wildcardGroups;
+            String prefix = groupId.substring(0, groupId.length() - GROUP_WILDCARD_SUFFIX.length());
+            for (String segment : prefix.split("\\.")) {
+                node = node.children.computeIfAbsent(segment, key -> new GroupNode());
+            }
+
+            node.versionsByArtifactId.computeIfAbsent(artifactId, key -> new Versions()).add(version);
+            return;
+        }
+
+        if (isRange(version)) {
+            this.rangesByGroupAndArtifact
+                .computeIfAbsent(groupId + ":" + artifactId, key -> new VersionIntervals())
+                .add(VersionRange.createFromVersionSpec(version));
+        } else {
+            this.exactCoordinates.add(groupId + ":" + artifactId + ":" + version);
+        }
+    }
+
+    /**
+     * Check if an artifact is excluded.
+     * @param groupId    the groupId of the artifact.
+     * @param artifactId the artifactId of the artifact.
+     * @param version    the version of the artifact.
+     * @return true if excluded.
+     */
+    boolean isExcluded(String groupId, String artifactId, String version) {
+        String coordinates = groupId + ":" + artifactId + ":" + version;
+        if (this.exactCoordinates.contains(coordinates)) {
+            return true;
+        }
+
+        if (this.compiledCoordinates != null && this.compiledCoordinates.contains(coordinates)) {
+            return true;
+        }
+
+        VersionIntervals ranges = this.rangesByGroupAndArtifact.get(groupId + ":" + artifactId);
+        if (ranges != null && ranges.contains(new DefaultArtifactVersion(version))) {
+            return true;
+        }
+
+        // A wildcard matches the groupIds below it, so only the nodes before the last segment are checked.
+        String[] segments = groupId.split("\\.");
+        GroupNode node = this.wildcardGroups;
+        for (int i = 0; i < segments.length - 1; i++) {
+            node = node.children.get(segments[i]);
+            if (node == null) {
+                return false;
+            }
+
+            if (node.matches(artifactId, version)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the number of exclusions.
+     * @return the number of exclusions added.
+     */
+    int size() {
+        return this.size + (this.compiledCoordinates == null ? 0 : this.compiledCoordinates.size());
+    }
+
+    /**
+     * Get the exact coordinates, which are added without a groupId wildcard or a version range,
+     * including those read from a snapshot.
+     * @return the coordinates as groupId:artifactId:version.
+     */
+    Set<String> getAllExactCoordinates() {
+        Set<String> coordinates = new HashSet<>(this.exactCoordinates);
+        if (this.compiledCoordinates != null) {
+            this.compiledCoordinates.addAllTo(coordinates);
+        }
+
+        return coordinates;
+    }
+
+    /**
+     * Get the exclusions with a groupId wildcard or a version range.
+     * @return the exclusions.
+     */
+    List<ExcludedMissingLicense> getPatternExclusions() {
+        return Collections.unmodifiableList(this.patternExclusions);
+    }
+
+    /**
+     * Use exact coordinates from a snapshot.
+     * @param coordinates the coordinates.
+     */
+    void setCompiledCoordinates(ExcludedMissingLicenseSnapshot.CoordinateTable coordinates) {
+        this.compiledCoordinates = coordinates;
+    }
+
+    /**
+     * Finish adding exclusions, before the index is used.
+     */
+    void build() {
+        for (VersionIntervals ranges : this.rangesByGroupAndArtifact.values()) {
+            ranges.build();
+        }
+
+        this.wildcardGroups.build();
+    }
+
+    private static boolean isRange(String version) {
+        return version.startsWith("[") || version.startsWith("(");
+    }
+
+    /**
+     * A segment of a groupId with a wildcard.
+     */
+    private static final class GroupNode {
+        private final Map<String, GroupNode> children = new HashMap<>();
+
+        private final Map<String, Versions> versionsByArtifactId = new HashMap<>();
+
+        private boolean matches(String artifactId, String version) {
+            if (this.versionsByArtifactId.isEmpty()) {
+                return false;
+            }
+
+            Versions versions = this.versionsByArtifactId.get(artifactId);
+            if (versions != null && versions.contains(version)) {
+                return true;
+            }
+
+            versions = this.versionsByArtifactId.get(ANY_ARTIFACT_ID);
+            return versions != null && versions.contains(version);
+        }
+
+        private void build() {
+            for (Versions versions : this.versionsByArtifactId.values()) {
+                versions.ranges.build();
+            }
+
+            for (GroupNode child : this.children.values()) {
+                child.build();
+            }
+        }
+    }
+
+    /**
+     * The exact versions and version ranges of one artifact.
+     */
+    private static final class Versions {
+        private final Set<String> exact = new HashSet<>();
+
+        private final VersionIntervals ranges = new VersionIntervals();
+
+        private void add(String version) throws InvalidVersionSpecificationException {
+            if (isRange(version)) {
+                this.ranges.add(VersionRange.createFromVersionSpec(version));
+            } else {
+                this.exact.add(version);
+            }
+        }
+
+        private boolean contains(String version) {
+            return this.exact.contains(version) || this.ranges.contains(new DefaultArtifactVersion(version));
+        }
+    }
+
+    /**
+     * Version ranges merged into sorted intervals which don't overlap.
+     */
+    private static final class VersionIntervals {
+        private static final Comparator<Restriction> BY_LOWER_BOUND = (first, second) -> {
+            if (first.getLowerBound() == null || second.getLowerBound() == null) {
+                return first.getLowerBound() == null ? (second.getLowerBound() == null ? 0 : -1) : 1;
+            }
+
+            int compare = first.getLowerBound().compareTo(second.getLowerBound());
+            if (compare != 0) {
+                return compare;
+            }
+
+            return Boolean.compare(second.isLowerBoundInclusive(), first.isLowerBoundInclusive());
+        };
+
+        private List<Restriction> intervals = new ArrayList<>();
+
+        private void add(VersionRange range) {
+            this.intervals.addAll(range.getRestrictions());
+        }
+
+        private void build() {
+            if (this.intervals.size() < 2) {
+                return;
+            }
+
+            this.intervals.sort(BY_LOWER_BOUND);
+
+            List<Restriction> merged = new ArrayList<>();
+            Restriction current = this.intervals.get(0);
+            for (int i = 1; i < this.intervals.size(); i++) {
+                Restriction next = this.intervals.get(i);
+                if (overlaps(current, next)) {
+                    current = new Restriction(
+                        current.getLowerBound(),
+                        current.isLowerBoundInclusive(),
+                        upperOf(current, next).getUpperBound(),
+                        upperOf(current, next).isUpperBoundInclusive());
+                } else {
+                    merged.add(current);
+                    current = next;
+                }
+            }
+
+            merged.add(current);
+            this.intervals = merged;
+        }
+
+        private boolean contains(ArtifactVersion version) {
+            // The last interval starting at or before the version is the only one which can contain it.
+            int low = 0;
+            int high = this.intervals.size() - 1;
+            int candidate = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                ArtifactVersion lowerBound = this.intervals.get(middle).getLowerBound();
+                if (lowerBound == null || lowerBound.compareTo(version) <= 0) {
+                    candidate = middle;
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            return candidate != -1 && this.intervals.get(candidate).containsVersion(version);
+        }
+
+        private static boolean overlaps(Restriction current, Restriction next) {
+            if (current.getUpperBound() == null || next.getLowerBound() == null) {
+                return true;
+            }
+
+            int compare = next.getLowerBound().compareTo(current.getUpperBound());
+            return compare < 0
+                || compare == 0 && (current.isUpperBoundInclusive() || next.isLowerBoundInclusive());
+        }
+
+        private static Restriction upperOf(Restriction current, Restriction next) {
+            if (current.getUpperBound() == null) {
+                return current;
+            }
+            if (next.getUpperBound() == null) {
+                return next;
+            }
+
+            int compare = current.getUpperBound().compareTo(next.getUpperBound());
+            if (compare == 0) {
+                return current.isUpperBoundInclusive() ? current : next;
+            }
+
+            return compare > 0 ? current : next;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo;
+
+import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
+import se.ayoy.maven.plugins.licenseverifier.PolicySnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Writes and reads exclusions of missing licenses as a snapshot, see {@link PolicySnapshot}.
+ * <br>
+ * The exclusions with a groupId wildcard or a version range are few and are indexed in memory when the snapshot
+ * is read. The exact coordinates, which are most of a large file, are written as an open addressing hash table
+ * which is searched directly in the mapped snapshot, so reading the snapshot doesn't depend on their number.
+ */
+final class ExcludedMissingLicenseSnapshot {
+
+    private static final int EMPTY_SLOT = -1;
+
+    private ExcludedMissingLicenseSnapshot() {
+    }
+
+    /**
+     * Write exclusions as the snapshot of an excluded missing licenses file.
+     * @param index the exclusions.
+     * @param file  the file the exclusions were read from.
+     * @throws IOException if it could not be written.
+     */
+    static void write(ExcludedMissingLicenseIndex index, File file) throws IOException {
+        PolicySnapshot.write(file, PolicySnapshot.KIND_EXCLUSIONS, output -> {
+            output.writeInt(index.getPatternExclusions().size());
+            for (ExcludedMissingLicense exclusion : index.getPatternExclusions()) {
+                PolicySnapshot.writeString(output, exclusion.getGroupId());
+                PolicySnapshot.writeString(output, exclusion.getArtifactId());
+                PolicySnapshot.writeString(output, exclusion.getVersion());
+            }
+
+            writeTable(output, index.getAllExactCoordinates());
+        });
+    }
+
+    /**
+     * Read exclusions.
+     * @param snapshot the snapshot to read.
+     * @return the exclusions.
+     * @throws IOException if it could not be read.
+     */
+    static ExcludedMissingLicenseIndex read(File snapshot) throws IOException {
+        ByteBuffer buffer = PolicySnapshot.map(snapshot, PolicySnapshot.KIND_EXCLUSIONS);
+        ExcludedMissingLicenseIndex index = new ExcludedMissingLicenseIndex();
+        try {
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                index.add(new ExcludedMissingLicense(
+                    PolicySnapshot.readString(buffer),
+                    PolicySnapshot.readString(buffer),
+                    PolicySnapshot.readString(buffer)));
+            }
+
+            index.setCompiledCoordinates(new CoordinateTable(buffer.slice()));
+        } catch (BufferUnderflowException | InvalidVersionSpecificationException | NullPointerException exc) {
+            throw new IOException("Corrupt snapshot " + snapshot, exc);
+        }
+
+        index.build();
+        return index;
+    }
+
+    private static void writeTable(DataOutputStream output, Set<String> coordinates) throws IOException {
+        int slotCount = 1;
+        while (slotCount < coordinates.size() * 2) {
+            slotCount <<= 1;
+        }
+
+        int[] slots = new int[slotCount];
+        Arrays.fill(slots, EMPTY_SLOT);
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        DataOutputStream dataOutput = new DataOutputStream(data);
+        for (String coordinate : coordinates) {
+            int slot = slotOf(coordinate, slotCount);
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & (slotCount - 1);
+            }
+
+            slots[slot] = dataOutput.size();
+            byte[] bytes = coordinate.getBytes(StandardCharsets.UTF_8);
+            dataOutput.writeInt(bytes.length);
+            dataOutput.write(bytes);
+        }
+
+        output.writeInt(coordinates.size());
+        output.writeInt(slotCount);
+        for (int slot : slots) {
+            output.writeInt(slot);
+        }
+
+        dataOutput.flush();
+        data.writeTo(output);
+    }
+
+    private static int slotOf(String coordinate, int slotCount) {
+        int hash = coordinate.hashCode();
+        return (hash ^ (hash >>> Short.SIZE)) & (slotCount - 1);
+    }
+
+    /**
+     * Exact coordinates in a hash table in a snapshot.
+     */
+    static final class CoordinateTable {
+        private final ByteBuffer buffer;
+
+        private final int size;
+
+        private final int slotCount;
+
+        private final int dataStart;
+
+        private CoordinateTable(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.size = buffer.getInt(0);
+            this.slotCount = buffer.getInt(Integer.BYTES);
+            this.dataStart = Integer.BYTES * (2 + this.slotCount);
+            if (this.slotCount <= 0 || Integer.bitCount(this.slotCount) != 1 || this.dataStart > buffer.limit()) {
+                throw new BufferUnderflowException();
+            }
+        }
+
+        /**
+         * Check if the table has coordinates. Safe to call from any number of threads.
+         * @param coordinates the coordinates as groupId:artifactId:version.
+         * @return true if the coordinates are in the table.
+         */
+        boolean contains(String coordinates) {
+            byte[] bytes = coordinates.getBytes(StandardCharsets.UTF_8);
+            int slot = slotOf(coordinates, this.slotCount);
+            for (int probes = 0; probes < this.slotCount; probes++) {
+                int offset = this.buffer.getInt(Integer.BYTES * (2 + slot));
+                if (offset == EMPTY_SLOT) {
+                    return false;
+                }
+
+                if (matches(this.dataStart + offset, bytes)) {
+                    return true;
+                }
+
+                slot = (slot + 1) & (this.slotCount - 1);
+            }
+
+            return false;
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        /**
+         * Add all coordinates in the table to a set.
+         * @param coordinates the set to add to.
+         */
+        void addAllTo(Set<String> coordinates) {
+            int position = this.dataStart;
+            while (position < this.buffer.limit()) {
+                byte[] bytes = new byte[this.buffer.getInt(position)];
+                position += Integer.BYTES;
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] = this.buffer.get(position + i);
+                }
+
+                position += bytes.length;
+                coordinates.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        }
+
+        private boolean matches(int position, byte[] bytes) {
+            if (this.buffer.getInt(position) != bytes.length) {
+                return false;
+            }
+
+            int start = position + Integer.BYTES;
+            for (int i = 0; i < bytes.length; i++) {
+                if (this.buffer.get(start + i) != bytes[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package se.ayoy.maven.plugins.licenseverifier;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the parsed content of configuration files for as long as the JVM lives, so that a file shared by all
+ * modules of a reactor build, or by builds in the same Maven daemon, is only parsed once.
+ * <br>
+ * Files are identified by their canonical path and resources by their url. A file is parsed again when its
+ * content has changed. The content is only hashed when the size or modification time has changed, or when
+ * the file was modified so close to when it was read that a later change could have kept the same modification
+ * time. Resources are always hashed.
+ * <br>
+ * The parsed content is shared by threads and builds, so it must not be changed.
+ * @param <T> the type of the parsed content.
+ */
+public final class ParsedFileCache<T> {
+
+    /**
+     * The most files to keep, before all of them are forgotten.
+     */
+    private static final int MAX_ENTRIES = 64;
+
+    /**
+     * The time after a modification during which a file may be modified again without its modification time
+     * changing, on file systems with coarse timestamps.
+     */
+    private static final long RACY_MILLIS = 2000;
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Parses the content of a file.
+     * @param <T> the type of the parsed content.
+     */
+    public interface Parser<T> {
+
+        /**
+         * Parse the content.
+         * @param content the content of the file.
+         * @return the parsed content.
+         * @throws MojoExecutionException if the content is invalid.
+         */
+        T parse(InputStream content) throws MojoExecutionException;
+    }
+
+    /**
+     * Get the parsed content of a file or a resource, parsing it only if it hasn't been parsed before or has
+     * changed since.
+     * @param file           the file to read.
+     * @param filePathString the path, used as resource name if the file doesn't exist.
+     * @param parser         parses the content.
+     * @return the parsed content.
+     * @throws FileNotFoundException  if neither the file nor the resource could be found.
+     * @throws MojoExecutionException if the content could not be read or parsed.
+     */
+    public T get(File file, String filePathString, Parser<T> parser)
+        throws FileNotFoundException, MojoExecutionException {
+
+        String key;
+        long size;
+        long lastModified;
+        if (file.exists()) {
+            try {
+                key = file.getCanonicalPath();
+            } catch (IOException exc) {
+                throw new MojoExecutionException("Could not resolve " + file, exc);
+            }
+
+            size = file.length();
+            lastModified = file.lastModified();
+        } else {
+            URL url = LicenceFile.findResource(filePathString);
+            if (url == null) {
+                throw new FileNotFoundException(filePathString);
+            }
+
+            key = url.toString();
+            size = -1;
+            lastModified = -1;
+        }
+
+        Entry<T> entry = this.entries.get(key);
+        if (entry != null && size != -1 && entry.isUnchanged(size, lastModified)) {
+            return entry.content;
+        }
+
+        long readAt = System.currentTimeMillis();
+        byte[] bytes;
+        try (InputStream input = LicenceFile.openFileOrResource(file, filePathString)) {
+            bytes = input.readAllBytes();
+        } catch (FileNotFoundException exc) {
+            throw exc;
+        } catch (IOException exc) {
+            throw new MojoExecutionException("Could not read " + filePathString, exc);
+        }
+
+        byte[] hash = hash(bytes);
+        T content;
+        if (entry != null && Arrays.equals(entry.hash, hash)) {
+            content = entry.content;
+        } else {
+            content = parser.parse(new ByteArrayInputStream(bytes));
+        }
+
+        if (this.entries.size() >= MAX_ENTRIES) {
+            this.entries.clear();
+        }
+
+        this.entries.put(key, new Entry<>(content, hash, size, lastModified, readAt));
+        return content;
+    }
+
+    private static byte[] hash(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException("SHA-256 is not supported", exc);
+        }
+    }
+
+    /**
+     * The parsed content of a file, and what the file was like when it was read.
+     * @param <T> the type of the parsed content.
+     */
+    private static final class Entry<T> {
+        private final T content;
+
+        private final byte[] hash;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long readAt;
+
+        private Entry(T content, byte[] hash, long size, long lastModified, long readAt) {
+            this.content = content;
+            this.hash = hash;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.readAt = readAt;
+        }
+
+        private boolean isUnchanged(long currentSize, long currentLastModified) {
+            return this.size == currentSize
+                && this.lastModified == currentLastModified
+                && this.lastModified < this.readAt - RACY_MILLIS;
+        }
+    }
+}
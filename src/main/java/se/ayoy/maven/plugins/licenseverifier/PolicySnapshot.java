@@ -0,0 +1,269 @@
+package se.ayoy.maven.plugins.licenseverifier;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The binary form of a configuration file, written by the compile-policy goal and used instead of the file
+ * as long as the file is unchanged.
+ * <br>
+ * A snapshot is kept next to the file it is compiled from, with {@link #SUFFIX} appended to the name. It starts
+ * with a magic number, the format version, the kind of file and the size and SHA-256 hash of the file it was
+ * compiled from, so that a snapshot is never used for another content of the file, whatever the modification
+ * times are. A snapshot is read through a memory mapping, so that its content is not copied to the heap.
+ * Strings are written as their length in UTF-8 bytes, or -1 for null, followed by the bytes.
+ */
+public final class PolicySnapshot {
+
+    /**
+     * Appended to the name of a configuration file to get the name of its snapshot.
+     */
+    public static final String SUFFIX = ".bin";
+
+    /**
+     * The kind of a snapshot of a license file.
+     */
+    public static final byte KIND_LICENSES = 'L';
+
+    /**
+     * The kind of a snapshot of an excluded missing licenses file.
+     */
+    public static final byte KIND_EXCLUSIONS = 'E';
+
+    private static final int MAGIC = 0x4159504C;
+
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int HASH_LENGTH = 32;
+
+    /**
+     * The magic number, format version, kind and the size and hash of the source.
+     */
+    private static final int HEADER_LENGTH = Integer.BYTES * 2 + 1 + Long.BYTES + HASH_LENGTH;
+
+    /**
+     * The hashes of the configuration files checked against their snapshots, which are only hashed again when
+     * they may have changed.
+     */
+    private static final ParsedFileCache<byte[]> SOURCE_HASHES = new ParsedFileCache<>();
+
+    private PolicySnapshot() {
+    }
+
+    /**
+     * Get the snapshot of a configuration file.
+     * @param file the configuration file.
+     * @return the snapshot, which may not exist.
+     */
+    public static File getSnapshotFile(File file) {
+        return new File(file.getPath() + SUFFIX);
+    }
+
+    /**
+     * Check if there is a snapshot of a configuration file which was compiled from its current content.
+     * The file is only hashed again when its size or modification time has changed, see {@link ParsedFileCache}.
+     * @param file the configuration file.
+     * @return true if the snapshot should be used instead of the file.
+     */
+    public static boolean isUpToDate(File file) {
+        File snapshot = getSnapshotFile(file);
+        if (!file.isFile() || !snapshot.isFile()) {
+            return false;
+        }
+
+        byte[] header = new byte[HEADER_LENGTH];
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(snapshot.toPath()))) {
+            input.readFully(header);
+        } catch (IOException exc) {
+            return false;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(header);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            return false;
+        }
+
+        buffer.get();
+        if (buffer.getLong() != file.length()) {
+            return false;
+        }
+
+        byte[] hash = new byte[HASH_LENGTH];
+        buffer.get(hash);
+        try {
+            return Arrays.equals(hash, SOURCE_HASHES.get(file, file.getPath(), PolicySnapshot::hash));
+        } catch (FileNotFoundException | MojoExecutionException exc) {
+            return false;
+        }
+    }
+
+    /**
+     * Map a snapshot into memory and check its header. Whether it was compiled from the current content of the
+     * file is checked by {@link #isUpToDate(File)}.
+     * @param snapshot the snapshot.
+     * @param kind     the kind of snapshot expected.
+     * @return the content after the header.
+     * @throws IOException if the snapshot could not be read, or is of another kind or version.
+     */
+    public static ByteBuffer map(File snapshot, byte kind) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < HEADER_LENGTH
+            || buffer.getInt() != MAGIC
+            || buffer.getInt() != FORMAT_VERSION
+            || buffer.get() != kind) {
+            throw new IOException("Unsupported snapshot " + snapshot + ", compile it again.");
+        }
+
+        buffer.position(HEADER_LENGTH);
+        return buffer.slice();
+    }
+
+    /**
+     * Write the snapshot of a configuration file. The snapshot is replaced at once, so that it is never seen
+     * half written.
+     * @param file    the configuration file the snapshot is compiled from.
+     * @param kind    the kind of snapshot.
+     * @param content writes the content after the header.
+     * @throws IOException if the file could not be read or the snapshot could not be written.
+     */
+    public static void write(File file, byte kind, ContentWriter content) throws IOException {
+        long size = file.length();
+        byte[] hash = hash(file);
+        Path target = getSnapshotFile(file).toPath().toAbsolutePath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream fileOutput = Files.newOutputStream(temporary);
+                 DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput))) {
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT_VERSION);
+                output.writeByte(kind);
+                output.writeLong(size);
+                output.write(hash);
+                content.write(output);
+            }
+
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Write a string.
+     * @param output the output.
+     * @param value  the string, may be null.
+     * @throws IOException if it could not be written.
+     */
+    public static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Write strings, preceded by their number.
+     * @param output the output.
+     * @param values the strings.
+     * @throws IOException if they could not be written.
+     */
+    public static void writeStrings(DataOutputStream output, Collection<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    /**
+     * Read a string written by {@link #writeString(DataOutputStream, String)}.
+     * @param buffer the buffer to read from.
+     * @return the string, may be null.
+     */
+    public static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read strings written by {@link #writeStrings(DataOutputStream, Collection)}.
+     * @param buffer the buffer to read from.
+     * @return the strings.
+     */
+    public static List<String> readStrings(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(readString(buffer));
+        }
+
+        return values;
+    }
+
+    private static byte[] hash(File file) throws IOException {
+        return hash(Files.readAllBytes(file.toPath()));
+    }
+
+    private static byte[] hash(InputStream content) throws MojoExecutionException {
+        try {
+            return hash(content.readAllBytes());
+        } catch (IOException exc) {
+            throw new MojoExecutionException(exc.getMessage(), exc);
+        }
+    }
+
+    private static byte[] hash(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException("SHA-256 is not supported", exc);
+        }
+    }
+
+    /**
+     * Writes the content of a snapshot.
+     */
+    public interface ContentWriter {
+
+        /**
+         * Write the content.
+         * @param output the output.
+         * @throws IOException if it could not be written.
+         */
+        void write(DataOutputStream output) throws IOException;
+    }
+}
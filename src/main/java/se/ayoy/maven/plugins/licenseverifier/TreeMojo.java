@@ -2,18 +2,30 @@ package se.ayoy.maven.plugins.licenseverifier;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
-import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
-import se.ayoy.maven.plugins.licenseverifier.resolver.TreeNode;
+import se.ayoy.maven.plugins.licenseverifier.resolver.DependencyTree;
 import se.ayoy.maven.plugins.licenseverifier.visualize.TreeNodeVisualizer;
 
 import java.io.IOException;
+import java.util.List;
 
 /**
  * A tree mojo, much like maven-dependency-plugin:tree.
  */
 @Mojo(name = "tree")
 public class TreeMojo extends LicenseAbstractMojo {
+
+    /**
+     * A dependency, as groupId:artifactId:version, to show the dependency chains to instead of the whole tree.
+     */
+    @Parameter(property = "verify.pathsTo", defaultValue = "")
+    private String pathsTo;
+
+    public void setPathsTo(String pathsTo) {
+        this.pathsTo = pathsTo;
+    }
+
     /**
      * Query the dependency tree for dependencies and visualize.
      * @throws MojoExecutionException when something goes south.
@@ -25,14 +37,39 @@ public class TreeMojo extends LicenseAbstractMojo {
             checkInjects();
 
             getLog().info("Parsing dependencies to dependency tree.");
-            TreeNode<AyoyArtifact> tree = buildDependencyTree();
-            String dependencyTreeString = TreeNodeVisualizer.visualize(tree, 0);
+            DependencyTree tree = buildDependencyTree();
+            if (this.pathsTo != null && !this.pathsTo.trim().isEmpty()) {
+                logPaths(tree, this.pathsTo.trim());
+                return;
+            }
+
+            String dependencyTreeString = TreeNodeVisualizer.visualize(tree);
             logMultiLine(dependencyTreeString, getLog());
         } catch (DependencyGraphBuilderException | IOException e) {
             throw new MojoExecutionException(e.getMessage(), e);
         }
     }
 
+    private void logPaths(DependencyTree tree, String gav) throws IOException {
+        List<int[]> paths = tree.getPaths(gav);
+        if (paths.isEmpty()) {
+            getLog().info(gav + " is not in the dependency tree.");
+            return;
+        }
+
+        StringBuilder toReturn = new StringBuilder();
+        toReturn.append(paths.size()).append(" dependency chains to ").append(gav).append(", the shortest is:");
+        toReturn.append(System.lineSeparator()).append("  ");
+        TreeNodeVisualizer.writePath(tree, tree.getShortestPath(gav), toReturn);
+        toReturn.append(System.lineSeparator()).append("All chains:");
+        for (int[] path : paths) {
+            toReturn.append(System.lineSeparator()).append("  ");
+            TreeNodeVisualizer.writePath(tree, path, toReturn);
+        }
+
+        logMultiLine(toReturn.toString(), getLog());
+    }
+
     void checkInjects() {
         if (this.getProject() == null) {
             throw new NullPointerException("project cannot be null.");
@@ -57,6 +57,14 @@ public class AyoyArtifact implements Comparable<AyoyArtifact> {
         return this.artifact;
     }
 
+    /**
+     * Get the coordinates of the artifact.
+     * @return the coordinates as groupId:artifactId:version.
+     */
+    public String getGav() {
+        return toString(this.artifact);
+    }
+
     @Override
     public String toString() {
         StringBuilder toReturn = new StringBuilder();
@@ -1,5 +1,7 @@
 package se.ayoy.maven.plugins.licenseverifier.model;
 
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfo;
+
 /**
  * Represents the total status of all artifacts.
  */
@@ -40,4 +42,30 @@ public class OverallStatus {
     public boolean getHasUnknownLicense() {
         return this.hasUnknownLicense;
     }
+
+    /**
+     * Add the status of an artifact which isn't valid.
+     * @param artifact the artifact.
+     */
+    public void addInvalidArtifact(AyoyArtifact artifact) {
+        if (artifact.getLicenseInfos().isEmpty()) {
+            this.hasNoLicense = true;
+        }
+
+        for (LicenseInfo info : artifact.getLicenseInfos()) {
+            switch (info.getStatus()) {
+                case WARNING:
+                    this.hasWarningLicense = true;
+                    break;
+                case FORBIDDEN:
+                    this.hasForbiddenLicense = true;
+                    break;
+                case UNKNOWN:
+                    this.hasUnknownLicense = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
 }
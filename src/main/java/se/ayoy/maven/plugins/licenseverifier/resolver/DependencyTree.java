@@ -0,0 +1,383 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.artifact.Artifact;
+import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The dependency tree, kept in arrays indexed by node id.
+ * <br>
+ * Every node has the id of its parent, its first and last child and its next sibling, and its depth. The root,
+ * {@link #ROOT}, is the project building the tree and has no artifact. The same artifact found below several
+ * parents is kept once in an artifact table and shared by its nodes, so that its licenses and license status are
+ * only held and determined once.
+ * <br>
+ * The nodes of every groupId:artifactId:version are indexed as they are added, so that the paths to an artifact
+ * are found without searching the tree.
+ */
+public final class DependencyTree {
+
+    /**
+     * The id of the root node.
+     */
+    public static final int ROOT = 0;
+
+    /**
+     * The id used where there is no node, like the parent of the root or the next sibling of the last child.
+     */
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] parents = new int[INITIAL_CAPACITY];
+
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+
+    private int[] depths = new int[INITIAL_CAPACITY];
+
+    /**
+     * The index in the artifact table of the artifact of every node, or NONE for the root.
+     */
+    private int[] artifactIndexes = new int[INITIAL_CAPACITY];
+
+    /**
+     * The node of the same groupId:artifactId:version added before every node, or NONE.
+     */
+    private int[] previousNodesOfGav = new int[INITIAL_CAPACITY];
+
+    private int nodeCount;
+
+    /**
+     * The nodes removed by {@link #retainNodes(NodeFilter)}, not including the nodes below them.
+     */
+    private final BitSet removedNodes = new BitSet();
+
+    private final Map<String, Integer> lastNodeByGav = new HashMap<>();
+
+    private final List<AyoyArtifact> artifacts = new ArrayList<>();
+
+    private final Map<String, Integer> artifactIndexByKey = new HashMap<>();
+
+    /**
+     * Create a tree with only the root.
+     */
+    public DependencyTree() {
+        createNode(NONE, NONE, 0);
+    }
+
+    /**
+     * Add a node as the last child of a node.
+     * @param parent   the id of the parent.
+     * @param artifact the artifact of the new node.
+     * @return the id of the new node.
+     */
+    public int addChild(int parent, Artifact artifact) {
+        int node = createNode(parent, internArtifact(artifact), this.depths[parent] + 1);
+        if (this.lastChildren[parent] == NONE) {
+            this.firstChildren[parent] = node;
+        } else {
+            this.nextSiblings[this.lastChildren[parent]] = node;
+        }
+
+        this.lastChildren[parent] = node;
+
+        Integer previousNode = this.lastNodeByGav.put(getArtifact(node).getGav(), node);
+        this.previousNodesOfGav[node] = previousNode == null ? NONE : previousNode;
+        return node;
+    }
+
+    /**
+     * Get the parent of a node.
+     * @param node the id of the node.
+     * @return the id of the parent, or NONE for the root.
+     */
+    public int getParent(int node) {
+        return this.parents[node];
+    }
+
+    /**
+     * Get the first child of a node.
+     * @param node the id of the node.
+     * @return the id of the first child, or NONE if it has no children.
+     */
+    public int getFirstChild(int node) {
+        return this.firstChildren[node];
+    }
+
+    /**
+     * Get the next sibling of a node.
+     * @param node the id of the node.
+     * @return the id of the next child of the same parent, or NONE if it is the last child.
+     */
+    public int getNextSibling(int node) {
+        return this.nextSiblings[node];
+    }
+
+    /**
+     * Get the depth of a node.
+     * @param node the id of the node.
+     * @return 0 for the root, 1 for its children and so on.
+     */
+    public int getDepth(int node) {
+        return this.depths[node];
+    }
+
+    /**
+     * Get the artifact of a node.
+     * @param node the id of the node.
+     * @return the artifact, shared with the other nodes of the same artifact, or null for the root.
+     */
+    public AyoyArtifact getArtifact(int node) {
+        int artifactIndex = this.artifactIndexes[node];
+        return artifactIndex == NONE ? null : this.artifacts.get(artifactIndex);
+    }
+
+    /**
+     * Remove the nodes which aren't kept, together with everything below them. The nodes are tested depth
+     * first, a parent before its children, and the children of a removed node aren't tested.
+     * @param keep tells if a node should be kept.
+     * @param <E>  the exception thrown by the filter.
+     * @throws E if the filter fails, the tree is then left as filtered so far.
+     */
+    public <E extends Exception> void retainNodes(NodeFilter<E> keep) throws E {
+        int parent = ROOT;
+        int previous = NONE;
+        int node = this.firstChildren[ROOT];
+        while (node != NONE || parent != ROOT) {
+            if (node == NONE) {
+                // All children tested, continue with the next sibling of the parent.
+                previous = parent;
+                node = this.nextSiblings[parent];
+                parent = this.parents[parent];
+            } else if (!keep.keep(node)) {
+                unlink(parent, previous, node);
+                node = this.nextSiblings[node];
+            } else {
+                parent = node;
+                previous = NONE;
+                node = this.firstChildren[node];
+            }
+        }
+    }
+
+    /**
+     * Get the nodes below the root depth first, in the order they were added.
+     * @return the ids of the nodes.
+     */
+    public int[] getNodesDepthFirst() {
+        int[] nodes = new int[this.nodeCount - 1];
+        int count = 0;
+        int node = this.firstChildren[ROOT];
+        while (node != NONE) {
+            nodes[count++] = node;
+            if (this.firstChildren[node] != NONE) {
+                node = this.firstChildren[node];
+                continue;
+            }
+
+            while (node != ROOT && this.nextSiblings[node] == NONE) {
+                node = this.parents[node];
+            }
+
+            node = node == ROOT ? NONE : this.nextSiblings[node];
+        }
+
+        return Arrays.copyOf(nodes, count);
+    }
+
+    /**
+     * Get the nodes below the root breadth first, so that the direct dependencies come first.
+     * @return the ids of the nodes.
+     */
+    public int[] getNodesBreadthFirst() {
+        int[] nodes = new int[this.nodeCount - 1];
+        int count = 0;
+        for (int child = this.firstChildren[ROOT]; child != NONE; child = this.nextSiblings[child]) {
+            nodes[count++] = child;
+        }
+
+        for (int i = 0; i < count; i++) {
+            for (int child = this.firstChildren[nodes[i]]; child != NONE; child = this.nextSiblings[child]) {
+                nodes[count++] = child;
+            }
+        }
+
+        return Arrays.copyOf(nodes, count);
+    }
+
+    /**
+     * Get the nodes of an artifact which are still in the tree.
+     * @param gav the groupId:artifactId:version of the artifact.
+     * @return the ids of the nodes, in the order they were added.
+     */
+    public int[] getNodes(String gav) {
+        Integer lastNode = this.lastNodeByGav.get(gav);
+        if (lastNode == null) {
+            return new int[0];
+        }
+
+        int count = 0;
+        for (int node = lastNode; node != NONE; node = this.previousNodesOfGav[node]) {
+            count++;
+        }
+
+        int[] nodes = new int[count];
+        int kept = 0;
+        for (int node = lastNode; node != NONE; node = this.previousNodesOfGav[node]) {
+            if (isInTree(node)) {
+                nodes[count - 1 - kept++] = node;
+            }
+        }
+
+        return Arrays.copyOfRange(nodes, count - kept, count);
+    }
+
+    /**
+     * Get all paths from the root to an artifact.
+     * @param gav the groupId:artifactId:version of the artifact.
+     * @return the paths as given by {@link #getPath(int)}, in the order the nodes were added.
+     */
+    public List<int[]> getPaths(String gav) {
+        List<int[]> paths = new ArrayList<>();
+        for (int node : getNodes(gav)) {
+            paths.add(getPath(node));
+        }
+
+        return paths;
+    }
+
+    /**
+     * Get the shortest path from the root to an artifact.
+     * @param gav the groupId:artifactId:version of the artifact.
+     * @return the path as given by {@link #getPath(int)}, the first added if several are equally short, or null
+     *         if the artifact isn't in the tree.
+     */
+    public int[] getShortestPath(String gav) {
+        int shortest = NONE;
+        for (int node : getNodes(gav)) {
+            if (shortest == NONE || this.depths[node] < this.depths[shortest]) {
+                shortest = node;
+            }
+        }
+
+        return shortest == NONE ? null : getPath(shortest);
+    }
+
+    /**
+     * Get the path from the root to a node.
+     * @param node the id of the node.
+     * @return the ids of the nodes from the child of the root to the node, empty for the root.
+     */
+    public int[] getPath(int node) {
+        int[] path = new int[this.depths[node]];
+        for (int current = node; current != ROOT; current = this.parents[current]) {
+            path[this.depths[current] - 1] = current;
+        }
+
+        return path;
+    }
+
+    /**
+     * Get the distinct artifacts in the tree, in the order they are first found depth first.
+     * @return the artifacts.
+     */
+    public List<AyoyArtifact> getArtifacts() {
+        boolean[] found = new boolean[this.artifacts.size()];
+        List<AyoyArtifact> toReturn = new ArrayList<>();
+        for (int node : getNodesDepthFirst()) {
+            int artifactIndex = this.artifactIndexes[node];
+            if (!found[artifactIndex]) {
+                found[artifactIndex] = true;
+                toReturn.add(this.artifacts.get(artifactIndex));
+            }
+        }
+
+        return toReturn;
+    }
+
+    private int createNode(int parent, int artifactIndex, int depth) {
+        if (this.nodeCount == this.parents.length) {
+            int capacity = this.nodeCount * 2;
+            this.parents = Arrays.copyOf(this.parents, capacity);
+            this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+            this.lastChildren = Arrays.copyOf(this.lastChildren, capacity);
+            this.nextSiblings = Arrays.copyOf(this.nextSiblings, capacity);
+            this.depths = Arrays.copyOf(this.depths, capacity);
+            this.artifactIndexes = Arrays.copyOf(this.artifactIndexes, capacity);
+            this.previousNodesOfGav = Arrays.copyOf(this.previousNodesOfGav, capacity);
+        }
+
+        int node = this.nodeCount++;
+        this.parents[node] = parent;
+        this.firstChildren[node] = NONE;
+        this.lastChildren[node] = NONE;
+        this.nextSiblings[node] = NONE;
+        this.depths[node] = depth;
+        this.artifactIndexes[node] = artifactIndex;
+        this.previousNodesOfGav[node] = NONE;
+        return node;
+    }
+
+    private void unlink(int parent, int previous, int child) {
+        int next = this.nextSiblings[child];
+        if (previous == NONE) {
+            this.firstChildren[parent] = next;
+        } else {
+            this.nextSiblings[previous] = next;
+        }
+
+        if (this.lastChildren[parent] == child) {
+            this.lastChildren[parent] = previous;
+        }
+
+        this.removedNodes.set(child);
+    }
+
+    private boolean isInTree(int node) {
+        for (int current = node; current != ROOT; current = this.parents[current]) {
+            if (this.removedNodes.get(current)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int internArtifact(Artifact artifact) {
+        // The scope and whether it is optional decides if an artifact is filtered, so they are part of the key.
+        String key = artifact.getId() + ":" + artifact.getScope() + ":" + artifact.isOptional();
+        Integer artifactIndex = this.artifactIndexByKey.get(key);
+        if (artifactIndex == null) {
+            artifactIndex = this.artifacts.size();
+            this.artifacts.add(new AyoyArtifact(artifact, null));
+            this.artifactIndexByKey.put(key, artifactIndex);
+        }
+
+        return artifactIndex;
+    }
+
+    /**
+     * Tells if a node should be kept in the tree.
+     * @param <E> the exception thrown if the node can't be tested.
+     */
+    public interface NodeFilter<E extends Exception> {
+
+        /**
+         * Test a node.
+         * @param node the id of the node.
+         * @return true if the node should be kept.
+         * @throws E if the node can't be tested.
+         */
+        boolean keep(int node) throws E;
+    }
+}
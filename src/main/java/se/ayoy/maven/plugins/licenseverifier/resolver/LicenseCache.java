@@ -0,0 +1,119 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.License;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SessionData;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A thread safe cache of resolved licenses, keyed by groupId:artifactId:version.
+ * One instance is shared by all executions in the same maven session, also when modules are built concurrently.
+ */
+public class LicenseCache {
+
+    /**
+     * The key in the session data. The class itself is used so that different plugin versions,
+     * which are loaded by different class realms, never share an instance.
+     */
+    private static final Object SESSION_KEY = LicenseCache.class;
+
+    private final ConcurrentMap<String, CompletableFuture<List<License>>> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, List<License>> parentLicenses = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Get the cache for a maven session, creating it if needed.
+     * @param session the maven session.
+     * @return the cache shared by the session, or a new cache if the session can't hold one.
+     */
+    public static LicenseCache forSession(MavenSession session) {
+        RepositorySystemSession repositorySession = session == null ? null : session.getRepositorySession();
+        if (repositorySession == null || repositorySession.getData() == null) {
+            return new LicenseCache();
+        }
+
+        SessionData data = repositorySession.getData();
+        Object cache = data.get(SESSION_KEY);
+        while (cache == null) {
+            data.set(SESSION_KEY, null, new LicenseCache());
+            cache = data.get(SESSION_KEY);
+        }
+
+        return (LicenseCache) cache;
+    }
+
+    /**
+     * Get the licenses of an artifact, loading them if they are not already cached.
+     * If another thread is already loading the same artifact, the call waits for that result instead.
+     * If that load is cancelled, which only concerns the execution it was made for, the call loads the licenses
+     * itself or waits for the next load.
+     * @param gav    the coordinates of the artifact.
+     * @param loader loads the licenses, returning null if they could not be found. Throws a
+     *               CancellationException if the caller no longer needs them.
+     * @return the licenses, or null if they could not be found.
+     */
+    public List<License> get(String gav, Supplier<List<License>> loader) {
+        CompletableFuture<List<License>> future = new CompletableFuture<>();
+        CompletableFuture<List<License>> existing = this.entries.putIfAbsent(gav, future);
+        while (existing != null) {
+            this.hits.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CancellationException exc) {
+                existing = this.entries.putIfAbsent(gav, future);
+            }
+        }
+
+        this.misses.incrementAndGet();
+        try {
+            List<License> licenses = loader.get();
+            if (licenses != null) {
+                licenses = Collections.unmodifiableList(new ArrayList<>(licenses));
+            }
+
+            future.complete(licenses);
+            return licenses;
+        } catch (RuntimeException exc) {
+            // Don't keep the failure, let the next caller try again.
+            this.entries.remove(gav, future);
+            future.completeExceptionally(exc);
+            throw exc;
+        }
+    }
+
+    /**
+     * Get the licenses of the parent POMs read so far, keyed by groupId:artifactId:version.
+     * @return the licenses of the parents, shared by all executions using this cache.
+     */
+    public ConcurrentMap<String, List<License>> getParentLicenses() {
+        return this.parentLicenses;
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    @Override
+    public String toString() {
+        return "license cache with " + this.entries.size() + " artifacts, "
+            + getHits() + " hits and " + getMisses() + " misses";
+    }
+}
@@ -1,7 +1,7 @@
 package se.ayoy.maven.plugins.licenseverifier.resolver;
 
 import org.apache.maven.shared.dependency.graph.DependencyNode;
-import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
+import org.apache.maven.shared.dependency.graph.filter.DependencyNodeFilter;
 
 /**
  * A visitor to collect license information from dependencies.
@@ -9,31 +9,58 @@ import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
 public class LicenseDependencyNodeVisitor
     implements org.apache.maven.shared.dependency.graph.traversal.DependencyNodeVisitor {
 
-    private TreeNode<AyoyArtifact> tree;
-    private TreeNode<AyoyArtifact> currentNode;
+    private DependencyTree tree;
+    private DependencyNodeFilter filter;
+    private int currentNode;
+
+    /**
+     * Whether the node visited last was filtered out, its children are then skipped and the next call
+     * is the end of the visit of the same node.
+     */
+    private boolean skipped;
 
     /**
      * Create the constructor.
      * @param tree the tree to populate
      */
-    public LicenseDependencyNodeVisitor(TreeNode<AyoyArtifact> tree) {
+    public LicenseDependencyNodeVisitor(DependencyTree tree) {
+        this(tree, null);
+    }
+
+    /**
+     * Create the constructor.
+     * @param tree   the tree to populate
+     * @param filter the nodes to add, a node which isn't accepted is skipped with everything below it.
+     *               Null to add all nodes.
+     */
+    public LicenseDependencyNodeVisitor(DependencyTree tree, DependencyNodeFilter filter) {
         this.tree = tree;
-        this.currentNode = this.tree;
+        this.filter = filter;
+        this.currentNode = DependencyTree.ROOT;
     }
 
     @Override
     public boolean visit(DependencyNode node) {
-        this.currentNode = currentNode.addChild(
-            new AyoyArtifact(node.getArtifact(), null));
+        if (this.filter != null && !this.filter.accept(node)) {
+            this.skipped = true;
+            return false;
+        }
+
+        this.currentNode = this.tree.addChild(this.currentNode, node.getArtifact());
 
         return true;
     }
 
     @Override
     public boolean endVisit(DependencyNode node) {
-        this.currentNode = this.currentNode.getParent();
-        if (this.currentNode == null) {
-            this.currentNode = this.tree;
+        if (this.skipped) {
+            this.skipped = false;
+            return true;
+        }
+
+        this.currentNode = this.tree.getParent(this.currentNode);
+        if (this.currentNode == DependencyTree.NONE) {
+            this.currentNode = DependencyTree.ROOT;
         }
 
         return true;
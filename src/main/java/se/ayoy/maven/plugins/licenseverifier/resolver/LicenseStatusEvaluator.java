@@ -0,0 +1,62 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfo;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoFile;
+import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Determines the license information of the licenses of artifacts, once per groupId:artifactId:version.
+ * <br>
+ * The licenses are resolved per groupId:artifactId:version, so artifacts which only differ in scope, type or
+ * classifier, and the fail fast check of an artifact before it gets its licenses, share the result.
+ * Not thread safe.
+ */
+public final class LicenseStatusEvaluator {
+
+    private final LicenseInfoFile licenseInfoFile;
+
+    private final Map<String, List<LicenseInfo>> licenseInfosByGav = new HashMap<>();
+
+    /**
+     * Create the instance.
+     * @param licenseInfoFile the license information file.
+     */
+    public LicenseStatusEvaluator(LicenseInfoFile licenseInfoFile) {
+        this.licenseInfoFile = licenseInfoFile;
+    }
+
+    /**
+     * Get the license information of the licenses of an artifact, in the order of the licenses.
+     * @param artifact the artifact, with its licenses.
+     * @return the license information, the same for every artifact with the same groupId:artifactId:version.
+     */
+    public List<LicenseInfo> getLicenseInfos(AyoyArtifact artifact) {
+        List<LicenseInfo> licenseInfos = this.licenseInfosByGav.get(artifact.getGav());
+        if (licenseInfos == null) {
+            licenseInfos = new ArrayList<>();
+            for (License license : artifact.getLicenses()) {
+                licenseInfos.add(this.licenseInfoFile.getLicenseInfoOrUnknown(license.getName(), license.getUrl()));
+            }
+
+            licenseInfos = Collections.unmodifiableList(licenseInfos);
+            this.licenseInfosByGav.put(artifact.getGav(), licenseInfos);
+        }
+
+        return licenseInfos;
+    }
+
+    /**
+     * Get the number of evaluations.
+     * @return the number of times the license information of an artifact was determined.
+     */
+    public int getEvaluations() {
+        return this.licenseInfosByGav.size();
+    }
+}
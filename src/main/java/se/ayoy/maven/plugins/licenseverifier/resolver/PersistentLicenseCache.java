@@ -0,0 +1,304 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Keeps resolved licenses in a file between builds.
+ * Every entry holds the SHA-1 of the POM it was resolved from and is only used while the POM in the
+ * local repository is unchanged.
+ */
+public final class PersistentLicenseCache {
+
+    private static final int MAGIC = 0x41594c43;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int MAX_STRING_LENGTH = 1024 * 1024;
+
+    private static final Object SAVE_LOCK = new Object();
+
+    private final File file;
+
+    private final Log log;
+
+    private final Map<String, Entry> entries;
+
+    private final Map<String, Entry> updatedEntries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger reused = new AtomicInteger();
+
+    private PersistentLicenseCache(File file, Log log, Map<String, Entry> entries) {
+        this.file = file;
+        this.log = log;
+        this.entries = new ConcurrentHashMap<>(entries);
+    }
+
+    /**
+     * Get a cache that never stores anything.
+     * @param log the log.
+     * @return the cache.
+     */
+    public static PersistentLicenseCache disabled(Log log) {
+        return new PersistentLicenseCache(null, log, Collections.emptyMap());
+    }
+
+    /**
+     * Load the cache from a file. A missing file gives an empty cache, as does a file which is corrupt
+     * or written in another format version.
+     * @param file the cache file.
+     * @param log  the log.
+     * @return the cache.
+     */
+    public static PersistentLicenseCache load(File file, Log log) {
+        Map<String, Entry> entries = Collections.emptyMap();
+        if (file.isFile()) {
+            try {
+                entries = read(file);
+                log.debug("Read " + entries.size() + " entries from license cache " + file);
+            } catch (IOException | RuntimeException exc) {
+                log.warn("Discarding license cache " + file + ": " + exc.getMessage());
+            }
+        }
+
+        return new PersistentLicenseCache(file, log, entries);
+    }
+
+    /**
+     * Get the licenses of an artifact, from the cache if the POM is unchanged or else from the loader.
+     * @param gav     the coordinates of the artifact.
+     * @param pomFile the POM of the artifact in the local repository, or null if it shouldn't be cached.
+     * @param loader  loads the licenses, returning null if they could not be found.
+     * @return the licenses, or null if they could not be found.
+     */
+    public List<License> get(String gav, File pomFile, Supplier<List<License>> loader) {
+        if (this.file == null || pomFile == null) {
+            return loader.get();
+        }
+
+        String checksum = pomFile.isFile() ? checksum(pomFile) : null;
+        Entry entry = this.entries.get(gav);
+        if (entry != null && checksum != null && checksum.equals(entry.checksum)) {
+            this.reused.incrementAndGet();
+            return entry.licenses;
+        }
+
+        List<License> licenses = loader.get();
+        if (licenses == null) {
+            return null;
+        }
+
+        if (checksum == null && pomFile.isFile()) {
+            // The POM was downloaded while resolving.
+            checksum = checksum(pomFile);
+        }
+
+        if (checksum != null) {
+            Entry newEntry = new Entry(checksum, Collections.unmodifiableList(new ArrayList<>(licenses)));
+            this.entries.put(gav, newEntry);
+            this.updatedEntries.put(gav, newEntry);
+        }
+
+        return licenses;
+    }
+
+    /**
+     * Write the updated entries to the file. Entries written by others since the file was loaded are kept.
+     * @throws IOException if the file could not be written.
+     */
+    public void save() throws IOException {
+        if (this.file == null || this.updatedEntries.isEmpty()) {
+            return;
+        }
+
+        synchronized (SAVE_LOCK) {
+            Map<String, Entry> merged = new TreeMap<>();
+            if (this.file.isFile()) {
+                try {
+                    merged.putAll(read(this.file));
+                } catch (IOException | RuntimeException exc) {
+                    this.log.debug("Overwriting unreadable license cache " + this.file + ": " + exc.getMessage());
+                }
+            }
+            merged.putAll(this.updatedEntries);
+
+            File directory = this.file.getAbsoluteFile().getParentFile();
+            Files.createDirectories(directory.toPath());
+            Path tempFile = Files.createTempFile(directory.toPath(), this.file.getName(), ".tmp");
+            try {
+                write(tempFile, merged);
+                Files.move(tempFile, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.file != null;
+    }
+
+    public int getReused() {
+        return this.reused.get();
+    }
+
+    public int getStored() {
+        return this.updatedEntries.size();
+    }
+
+    private static Map<String, Entry> read(File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE))) {
+
+            if (input.readInt() != MAGIC) {
+                throw new IOException("not a license cache file");
+            }
+
+            int version = input.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("unsupported format version " + version);
+            }
+
+            int entryCount = readCount(input);
+            Map<String, Entry> entries = new TreeMap<>();
+            for (int i = 0; i < entryCount; i++) {
+                String gav = readString(input);
+                String checksum = readString(input);
+
+                int licenseCount = readCount(input);
+                List<License> licenses = new ArrayList<>();
+                for (int j = 0; j < licenseCount; j++) {
+                    License license = new License();
+                    license.setName(readString(input));
+                    license.setUrl(readString(input));
+                    license.setDistribution(readString(input));
+                    license.setComments(readString(input));
+                    licenses.add(license);
+                }
+
+                entries.put(gav, new Entry(checksum, Collections.unmodifiableList(licenses)));
+            }
+
+            if (input.read() != -1) {
+                throw new IOException("unexpected data after the last entry");
+            }
+
+            return entries;
+        }
+    }
+
+    private static void write(Path path, Map<String, Entry> entries) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE))) {
+
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            output.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeString(output, entry.getKey());
+                writeString(output, entry.getValue().checksum);
+                output.writeInt(entry.getValue().licenses.size());
+                for (License license : entry.getValue().licenses) {
+                    writeString(output, license.getName());
+                    writeString(output, license.getUrl());
+                    writeString(output, license.getDistribution());
+                    writeString(output, license.getComments());
+                }
+            }
+        }
+    }
+
+    private static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0) {
+            throw new IOException("negative count " + count);
+        }
+
+        return count;
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == -1) {
+            return null;
+        }
+
+        if (length < 0 || length > MAX_STRING_LENGTH) {
+            throw new IOException("invalid string length " + length);
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private String checksum(File pomFile) {
+        try (InputStream input = Files.newInputStream(pomFile.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            StringBuilder toReturn = new StringBuilder();
+            for (byte b : digest.digest()) {
+                toReturn.append(String.format("%02x", b));
+            }
+
+            return toReturn.toString();
+        } catch (IOException | NoSuchAlgorithmException exc) {
+            this.log.debug("Could not calculate checksum of " + pomFile + ": " + exc.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The cached licenses of one artifact.
+     */
+    private static final class Entry {
+        private final String checksum;
+
+        private final List<License> licenses;
+
+        private Entry(String checksum, List<License> licenses) {
+            this.checksum = checksum;
+            this.licenses = licenses;
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Reads the licenses of an artifact directly from the POM files in the local repository, without building
+ * the effective model. The reading stops as soon as the licenses are found and the parent POM is only read
+ * when the POM doesn't declare any licenses of its own.
+ * <br>
+ * The licenses of every parent POM are kept, keyed by the coordinates of the parent, so that the many
+ * artifacts which inherit their licenses from the same parent only reads the parent chain once.
+ * <br>
+ * POMs which can't be handled this way, for instance when a license uses a property or a POM is not in the
+ * local repository, gives null and should be built the ordinary way instead.
+ */
+public class PomLicenseReader {
+
+    /**
+     * The deepest parent chain to follow.
+     */
+    private static final int MAX_PARENT_DEPTH = 32;
+
+    private static final int LICENSE_DEPTH = 3;
+
+    private static final int LICENSE_FIELD_DEPTH = 4;
+
+    private final PomLocator pomLocator;
+
+    private final XMLInputFactory inputFactory;
+
+    private final AtomicInteger read = new AtomicInteger();
+
+    private final AtomicInteger unsupported = new AtomicInteger();
+
+    private final AtomicInteger inheritedFromCache = new AtomicInteger();
+
+    private final ConcurrentMap<String, List<License>> parentLicenses;
+
+    /**
+     * Locates the POM file of an artifact.
+     */
+    public interface PomLocator {
+        /**
+         * Get the POM file of an artifact.
+         * @param groupId    the group id.
+         * @param artifactId the artifact id.
+         * @param version    the version.
+         * @return the file, which may not exist, or null if it can't be located.
+         */
+        File locate(String groupId, String artifactId, String version);
+    }
+
+    /**
+     * Create the instance.
+     * @param pomLocator locates the POM files to read.
+     */
+    public PomLicenseReader(PomLocator pomLocator) {
+        this(pomLocator, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Create the instance.
+     * @param pomLocator     locates the POM files to read.
+     * @param parentLicenses the licenses of the parent POMs read so far, keyed by groupId:artifactId:version.
+     *                       May be shared between readers.
+     */
+    public PomLicenseReader(PomLocator pomLocator, ConcurrentMap<String, List<License>> parentLicenses) {
+        this.pomLocator = pomLocator;
+        this.parentLicenses = parentLicenses;
+
+        this.inputFactory = XMLInputFactory.newFactory();
+
+        // Disable doctype and external entities, in the same way as when reading the configuration files.
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * Read the licenses of an artifact, following the parents if needed.
+     * @param groupId    the group id.
+     * @param artifactId the artifact id.
+     * @param version    the version.
+     * @return the licenses, or null if the POMs could not be read this way.
+     * @throws CancellationException if the thread is interrupted while reading, with the interrupt flag kept.
+     */
+    public List<License> readLicenses(String groupId, String artifactId, String version) {
+        String currentGroupId = groupId;
+        String currentArtifactId = artifactId;
+        String currentVersion = version;
+
+        // The parents passed on the way, which all get the licenses which are finally found.
+        List<String> parents = new ArrayList<>();
+        for (int depth = 0; depth < MAX_PARENT_DEPTH; depth++) {
+            if (depth > 0) {
+                String parentGav = currentGroupId + ":" + currentArtifactId + ":" + currentVersion;
+                List<License> inheritedLicenses = this.parentLicenses.get(parentGav);
+                if (inheritedLicenses != null) {
+                    this.inheritedFromCache.incrementAndGet();
+                    return found(parents, inheritedLicenses);
+                }
+
+                parents.add(parentGav);
+            }
+
+            PomInfo pomInfo = readPom(currentGroupId, currentArtifactId, currentVersion);
+            if (pomInfo == null) {
+                this.unsupported.incrementAndGet();
+                return null;
+            }
+
+            if (!pomInfo.licenses.isEmpty() || pomInfo.parentGroupId == null) {
+                return found(parents, Collections.unmodifiableList(pomInfo.licenses));
+            }
+
+            currentGroupId = pomInfo.parentGroupId;
+            currentArtifactId = pomInfo.parentArtifactId;
+            currentVersion = pomInfo.parentVersion;
+        }
+
+        this.unsupported.incrementAndGet();
+        return null;
+    }
+
+    public int getRead() {
+        return this.read.get();
+    }
+
+    /**
+     * Get the number of artifacts which got their licenses from an already read parent,
+     * instead of reading the parent chain again.
+     * @return the number of avoided parent resolutions.
+     */
+    public int getInheritedFromCache() {
+        return this.inheritedFromCache.get();
+    }
+
+    public int getUnsupported() {
+        return this.unsupported.get();
+    }
+
+    private List<License> found(List<String> parents, List<License> licenses) {
+        for (String parentGav : parents) {
+            this.parentLicenses.putIfAbsent(parentGav, licenses);
+        }
+
+        this.read.incrementAndGet();
+        return licenses;
+    }
+
+    private PomInfo readPom(String groupId, String artifactId, String version) {
+        if (groupId == null || artifactId == null || version == null) {
+            return null;
+        }
+
+        File pomFile = this.pomLocator.locate(groupId, artifactId, version);
+        if (pomFile == null || !pomFile.isFile()) {
+            return null;
+        }
+
+        try (InputStream inputStream = Files.newInputStream(pomFile.toPath())) {
+            XMLStreamReader reader = this.inputFactory.createXMLStreamReader(inputStream);
+            try {
+                return parse(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException exc) {
+            if (Thread.currentThread().isInterrupted()) {
+                // The read was cut short by cancellation, the POM may well be supported.
+                throw new CancellationException("Interrupted while reading " + pomFile + ".");
+            }
+
+            return null;
+        }
+    }
+
+    private static PomInfo parse(XMLStreamReader reader) throws XMLStreamException {
+        PomInfo pomInfo = new PomInfo();
+        int depth = 0;
+        String section = null;
+        License license = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                String name = reader.getLocalName();
+
+                if (depth == 1) {
+                    if (!"project".equals(name)) {
+                        return null;
+                    }
+                } else if (depth == 2) {
+                    section = name;
+                } else if (depth == LICENSE_DEPTH && "licenses".equals(section) && "license".equals(name)) {
+                    license = new License();
+                } else if (depth == LICENSE_DEPTH && "parent".equals(section)) {
+                    String value = readValue(reader);
+                    depth--;
+                    if (!pomInfo.setParentField(name, value)) {
+                        return null;
+                    }
+                } else if (depth == LICENSE_FIELD_DEPTH && license != null) {
+                    String value = readValue(reader);
+                    depth--;
+                    if (!setLicenseField(license, name, value)) {
+                        return null;
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                if (depth == LICENSE_DEPTH && license != null) {
+                    pomInfo.licenses.add(license);
+                    license = null;
+                } else if (depth == 2 && "licenses".equals(section) && !pomInfo.licenses.isEmpty()) {
+                    // Everything needed is found, no need to read the rest.
+                    return pomInfo;
+                } else if (depth == 1) {
+                    return pomInfo;
+                }
+
+                depth--;
+            }
+        }
+
+        return pomInfo;
+    }
+
+    private static String readValue(XMLStreamReader reader) throws XMLStreamException {
+        return reader.getElementText().trim();
+    }
+
+    /**
+     * Set a field of a license.
+     * @param license the license.
+     * @param name    the name of the element.
+     * @param value   the value of the element.
+     * @return false if the value can't be used as is, since it needs to be interpolated.
+     */
+    private static boolean setLicenseField(License license, String name, String value) {
+        if (value.contains("${")) {
+            return false;
+        }
+
+        switch (name) {
+            case "name":
+                license.setName(value);
+                break;
+            case "url":
+                license.setUrl(value);
+                break;
+            case "distribution":
+                license.setDistribution(value);
+                break;
+            case "comments":
+                license.setComments(value);
+                break;
+            default:
+                break;
+        }
+
+        return true;
+    }
+
+    /**
+     * The information needed from one POM.
+     */
+    private static final class PomInfo {
+        private final List<License> licenses = new ArrayList<>();
+
+        private String parentGroupId;
+
+        private String parentArtifactId;
+
+        private String parentVersion;
+
+        private boolean setParentField(String name, String value) {
+            if (value.contains("${")) {
+                return false;
+            }
+
+            switch (name) {
+                case "groupId":
+                    this.parentGroupId = value;
+                    break;
+                case "artifactId":
+                    this.parentArtifactId = value;
+                    break;
+                case "version":
+                    this.parentVersion = value;
+                    break;
+                default:
+                    break;
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Runs license resolution tasks, either on a fixed pool of platform threads or, on JDK 21 and later,
+ * on one virtual thread per task.
+ * <br>
+ * With virtual threads every artifact gets a thread of its own, so the number of concurrent calls to
+ * the project builder is capped by a semaphore instead of by the size of the pool.
+ */
+public final class ResolutionExecutor implements AutoCloseable {
+
+    private final ExecutorService executor;
+
+    private final Semaphore projectBuildPermits;
+
+    ResolutionExecutor(ExecutorService executor, Semaphore projectBuildPermits) {
+        this.executor = executor;
+        this.projectBuildPermits = projectBuildPermits;
+    }
+
+    /**
+     * Create an executor.
+     * @param threads           the maximum number of concurrent project builds.
+     * @param useVirtualThreads if virtual threads should be used when the JDK supports them.
+     * @return the executor.
+     */
+    public static ResolutionExecutor create(int threads, boolean useVirtualThreads) {
+        if (useVirtualThreads) {
+            ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualExecutor != null) {
+                return new ResolutionExecutor(virtualExecutor, new Semaphore(threads));
+            }
+        }
+
+        return new ResolutionExecutor(Executors.newFixedThreadPool(threads), null);
+    }
+
+    /**
+     * Check if the running JDK supports virtual threads.
+     * @return true if virtual threads are supported.
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return getVirtualThreadFactoryMethod() != null;
+    }
+
+    /**
+     * Submit a task.
+     * @param task the task.
+     * @param <T>  the type of the result.
+     * @return the future result of the task.
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return this.executor.submit(task);
+    }
+
+    /**
+     * Run an expensive step, such as building a project, within the concurrency limit.
+     * @param work the work to do.
+     * @param <T>  the type of the result.
+     * @return the result of the work.
+     * @throws CancellationException if interrupted while waiting, with the interrupt flag kept.
+     */
+    public <T> T limited(Supplier<T> work) {
+        if (this.projectBuildPermits == null) {
+            // The size of the pool is the limit.
+            return work.get();
+        }
+
+        try {
+            this.projectBuildPermits.acquire();
+        } catch (InterruptedException exc) {
+            // Cancelled when failing fast, which others waiting for the same artifact must not take as a failure.
+            Thread.currentThread().interrupt();
+            CancellationException cancellation =
+                new CancellationException("Interrupted while waiting to resolve licenses.");
+            cancellation.initCause(exc);
+            throw cancellation;
+        }
+
+        try {
+            return work.get();
+        } finally {
+            this.projectBuildPermits.release();
+        }
+    }
+
+    public boolean isVirtual() {
+        return this.projectBuildPermits != null;
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        Method factoryMethod = getVirtualThreadFactoryMethod();
+        if (factoryMethod == null) {
+            return null;
+        }
+
+        try {
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException exc) {
+            return null;
+        }
+    }
+
+    private static Method getVirtualThreadFactoryMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException exc) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package se.ayoy.maven.plugins.licenseverifier.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A fingerprint of everything the result of a verification depends on, such as the dependencies and the
+ * configuration files. When the fingerprint of a build equals the one stored by the last successful
+ * verification, the verification can be skipped.
+ */
+public final class VerificationFingerprint {
+
+    /**
+     * Changed whenever the content of the fingerprint changes, so that old fingerprints never match.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final MessageDigest digest;
+
+    /**
+     * Create an empty fingerprint.
+     */
+    public VerificationFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exc) {
+            throw new IllegalStateException("SHA-256 is not supported.", exc);
+        }
+
+        add(Integer.toString(FORMAT_VERSION));
+    }
+
+    /**
+     * Add a value.
+     * @param value the value, may be null.
+     * @return this fingerprint.
+     */
+    public VerificationFingerprint add(String value) {
+        if (value == null) {
+            addLength(-1);
+            return this;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addLength(bytes.length);
+        this.digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Add the content of a stream. The stream is closed when it has been read.
+     * @param inputStream the stream.
+     * @return this fingerprint.
+     * @throws IOException if the stream could not be read.
+     */
+    public VerificationFingerprint add(InputStream inputStream) throws IOException {
+        try (InputStream input = inputStream) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long length = 0;
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                this.digest.update(buffer, 0, read);
+                length += read;
+            }
+
+            add(Long.toString(length));
+        }
+
+        return this;
+    }
+
+    /**
+     * Get the value of the fingerprint. The fingerprint can't be changed afterwards.
+     * @return the value as a hex string.
+     */
+    public String getValue() {
+        StringBuilder toReturn = new StringBuilder();
+        for (byte b : this.digest.digest()) {
+            toReturn.append(String.format("%02x", b));
+        }
+
+        return toReturn.toString();
+    }
+
+    /**
+     * Read a stored fingerprint.
+     * @param file the file.
+     * @return the fingerprint, or null if there is none.
+     */
+    public static String read(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim();
+        } catch (IOException exc) {
+            return null;
+        }
+    }
+
+    /**
+     * Store a fingerprint.
+     * @param file  the file.
+     * @param value the fingerprint.
+     * @throws IOException if the file could not be written.
+     */
+    public static void write(File file, String value) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+
+        Files.write(file.toPath(), (value + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void addLength(int length) {
+        // The length makes the values unambiguous, "ab" + "c" never gives the same fingerprint as "a" + "bc".
+        this.digest.update((length + ":").getBytes(StandardCharsets.UTF_8));
+    }
+}
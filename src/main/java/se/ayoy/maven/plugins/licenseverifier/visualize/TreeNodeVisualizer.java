@@ -3,36 +3,30 @@ package se.ayoy.maven.plugins.licenseverifier.visualize;
 import org.apache.maven.artifact.Artifact;
 import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfo;
 import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
-import se.ayoy.maven.plugins.licenseverifier.resolver.TreeNode;
+import se.ayoy.maven.plugins.licenseverifier.resolver.DependencyTree;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
- * Visualizes a tree node with children.
+ * Visualizes a dependency tree.
  */
 public final class TreeNodeVisualizer {
     private TreeNodeVisualizer() {
     }
 
     /**
-     * Visualize a tree node with children.
-     * @param treeNode the tree node
-     * @param depth    the depth.
-     * @return a string visualization.
+     * Visualize a dependency tree.
+     * @param tree the tree.
+     * @return a string visualization, with one line per node below the root.
      */
-    public static String visualize(TreeNode<AyoyArtifact> treeNode, int depth) {
+    public static String visualize(DependencyTree tree) {
         StringBuilder toReturn = new StringBuilder();
 
-        if (depth > 0) {
-            // This is a child of the pom.
-            indent(toReturn, treeNode);
+        for (int node : tree.getNodesDepthFirst()) {
+            indent(toReturn, tree.getDepth(node));
 
-            toReturn.append(formatAyoyArtifact(treeNode.getData()));
-            toReturn.append(System.lineSeparator());
-        }
-
-        for (TreeNode<AyoyArtifact> childNode : treeNode) {
-            toReturn.append(visualize(childNode, depth + 1));
+            toReturn.append(formatAyoyArtifact(tree.getArtifact(node)));
             toReturn.append(System.lineSeparator());
         }
 
@@ -40,8 +34,37 @@ public final class TreeNodeVisualizer {
         return toReturn.toString().replaceAll("\\s+$", "");
     }
 
-    private static void indent(StringBuilder toReturn, TreeNode<AyoyArtifact> node) {
-        for (int i = 0; i < node.getLevel(); i++) {
+    /**
+     * Write the dependency chain to a node, like "pom -&gt; groupId:artifactId -&gt; groupId:artifactId".
+     * @param tree the tree.
+     * @param node the node.
+     * @param out  where to write the chain.
+     * @throws IOException if the chain could not be written.
+     */
+    public static void writeChain(DependencyTree tree, int node, Appendable out) throws IOException {
+        writePath(tree, tree.getPath(node), out);
+    }
+
+    /**
+     * Write a path given by the tree, like "pom -&gt; groupId:artifactId -&gt; groupId:artifactId".
+     * @param tree the tree.
+     * @param path the ids of the nodes of the path.
+     * @param out  where to write the path.
+     * @throws IOException if the path could not be written.
+     */
+    public static void writePath(DependencyTree tree, int[] path, Appendable out) throws IOException {
+        out.append("pom");
+        for (int node : path) {
+            Artifact artifact = tree.getArtifact(node).getArtifact();
+            out.append(" -> ")
+                .append(artifact.getGroupId())
+                .append(':')
+                .append(artifact.getArtifactId());
+        }
+    }
+
+    private static void indent(StringBuilder toReturn, int depth) {
+        for (int i = 0; i < depth; i++) {
             toReturn.append("  ");
         }
     }
@@ -0,0 +1,339 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the LicenseInfoFile class.
+ */
+public class LicenseInfoFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Log log = mock(Log.class);
+
+    @Test
+    public void findsLicenseByNameOrUrl() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + license("Apache", "Apache 2", "https://www.apache.org/licenses/LICENSE-2.0")
+            + license("MIT", "MIT License", "https://opensource.org/licenses/MIT")
+            + "</valid></licenses>");
+
+        // Act & verify
+        assertEquals("Apache", file.getLicenseInfo("Apache 2", null).getName());
+        assertEquals("MIT", file.getLicenseInfo("Unknown", "https://opensource.org/licenses/MIT").getName());
+        assertNull(file.getLicenseInfo("Unknown", "https://example.com"));
+        verify(this.log, never()).warn(anyString());
+    }
+
+    @Test
+    public void matchesNormalizedNamesAndUrls() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + license("Apache", "Apache License,  Version 2.0", "http://www.apache.org/licenses/LICENSE-2.0.txt")
+            + "</valid></licenses>");
+
+        // Act & verify
+        assertEquals("Apache", file.getLicenseInfo(" apache license, version 2.0", null).getName());
+        assertEquals("Apache", file.getLicenseInfo(null, "https://www.apache.org/licenses/LICENSE-2.0/").getName());
+        assertEquals("Apache", file.getLicenseInfo(null, "HTTP://WWW.APACHE.ORG/LICENSES/LICENSE-2.0").getName());
+        assertNull(file.getLicenseInfo(null, "https://www.apache.org/licenses/LICENSE-1.1"));
+    }
+
+    @Test
+    public void matchesConfiguredSpdxIds() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + "<license><name>Apache</name><spdxIds><spdxId>Apache-2.0</spdxId></spdxIds></license>"
+            + "</valid></licenses>");
+
+        // Act & verify
+        assertEquals("Apache", file.getLicenseInfo("Apache License, Version 2.0", null).getName());
+        assertEquals("Apache", file.getLicenseInfo(null, "https://www.apache.org/licenses/LICENSE-2.0").getName());
+        assertNull(file.getLicenseInfo("MIT", null));
+        verify(this.log, never()).warn(anyString());
+    }
+
+    @Test
+    public void matchesPatternsWithValidBeforeForbidden() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + "<license><name>BSD</name><namePattern>BSD*3*Clause*</namePattern></license>"
+            + "</valid><warning>"
+            + "<license><name>LGPL</name><urlPattern>regex:https?://www\\.gnu\\.org/.*lgpl.*</urlPattern></license>"
+            + "</warning><forbidden>"
+            + "<license><name>Any BSD</name><namePattern>*BSD*</namePattern></license>"
+            + "</forbidden></licenses>");
+
+        // Act & verify
+        assertEquals("BSD", file.getLicenseInfo("bsd 3-clause License", null).getName());
+        assertEquals("Any BSD", file.getLicenseInfo("BSD 2-Clause", null).getName());
+        assertEquals("LGPL", file.getLicenseInfo("GNU", "https://www.gnu.org/licenses/lgpl-3.0.html").getName());
+        assertEquals("BSD", file.getLicenseInfo("BSD 3 Clause", "http://www.gnu.org/lgpl").getName());
+        assertNull(file.getLicenseInfo("MIT", "https://www.gnu.org/licenses/gpl-3.0.html"));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void failsOnInvalidPattern() throws Exception {
+        load("<licenses><valid>"
+            + "<license><name>Broken</name><namePattern>regex:(unclosed</namePattern></license>"
+            + "</valid></licenses>");
+    }
+
+    @Test
+    public void failsOnPatternsWhichCannotBeCombined() throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), ("<licenses><valid>"
+            + "<license><name>BSD</name><namePattern>regex:(?&lt;kind>BSD).*</namePattern></license>"
+            + "<license><name>MIT</name><namePattern>regex:(?&lt;kind>MIT).*</namePattern></license>"
+            + "</valid></licenses>").getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        try {
+            new LicenseInfoFile(file.getPath(), this.log);
+
+            fail();
+        } catch (MojoExecutionException exc) {
+            // Verify
+            assertTrue(exc.getMessage().startsWith("Invalid patterns in " + file.getPath() + ": "));
+        }
+    }
+
+    @Test
+    public void failsOnNumberedBackReference() throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), ("<licenses><valid>"
+            + "<license><name>MIT</name><namePattern>regex:MIT\\\\1.*</namePattern></license>"
+            + "<license><name>BSD</name><namePattern>regex:(BSD) \\1.*</namePattern></license>"
+            + "</valid></licenses>").getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        try {
+            new LicenseInfoFile(file.getPath(), this.log);
+
+            fail();
+        } catch (MojoExecutionException exc) {
+            // Verify, an escaped backslash followed by a digit is accepted.
+            assertTrue(exc.getMessage().startsWith("Invalid pattern \"regex:(BSD) \\1.*\" for license \"BSD\": "));
+        }
+    }
+
+    @Test
+    public void evaluatesSpdxExpressions() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + "<license><name>Apache</name><spdxIds><spdxId>Apache-2.0</spdxId></spdxIds></license>"
+            + "</valid><forbidden>"
+            + license("GPL", "GPL-2.0-only", "https://www.gnu.org/licenses/old-licenses/gpl-2.0.html")
+            + "</forbidden></licenses>");
+
+        // Act
+        LicenseInfo dual = file.getLicenseInfoOrUnknown("GPL-2.0-only OR Apache-2.0", null);
+        LicenseInfo both = file.getLicenseInfoOrUnknown("GPL-2.0-only AND Apache-2.0", null);
+
+        // Verify
+        assertEquals(LicenseInfoStatusEnum.VALID, dual.getStatus());
+        assertEquals(LicenseInfoStatusEnum.FORBIDDEN, both.getStatus());
+        assertSame(dual, file.getLicenseInfoOrUnknown("GPL-2.0-only OR Apache-2.0", null));
+        assertNull(file.getLicenseInfo("GPL-2.0-only OR Apache-2.0", null));
+    }
+
+    @Test
+    public void ordersSectionsByStatus() throws Exception {
+        LicenseInfoFile file = load("<licenses><forbidden>"
+            + license("Forbidden", "Shared", "https://example.com/forbidden")
+            + "</forbidden><valid>"
+            + "<!-- Comments and unknown elements are ignored. --><description>Valid</description>"
+            + license("Valid", "Shared", "https://example.com/valid")
+            + "</valid></licenses>");
+
+        // Act & verify
+        assertEquals(LicenseInfoStatusEnum.VALID, file.getLicenseInfo("Shared", null).getStatus());
+        assertEquals(2, file.getPolicy().getLicenseInfos().size());
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void doctypeIsNotAllowed() throws Exception {
+        load("<?xml version=\"1.0\"?>"
+            + "<!DOCTYPE licenses [<!ENTITY name SYSTEM \"file:///etc/passwd\">]>"
+            + "<licenses><valid><license><name>&name;</name></license></valid></licenses>");
+    }
+
+    @Test
+    public void usesSnapshotOfUnchangedFile() throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), ("<licenses><valid>"
+            + license("MIT", "MIT License", "https://opensource.org/licenses/MIT")
+            + "<license><name>BSD</name><namePattern>BSD*</namePattern></license>"
+            + "</valid><forbidden>"
+            + "<license><name>GPL</name><spdxIds><spdxId>GPL-2.0-only</spdxId></spdxIds></license>"
+            + "</forbidden></licenses>").getBytes(StandardCharsets.UTF_8));
+        new LicenseInfoFile(file.getPath(), this.log).writeSnapshot(file);
+        File snapshot = new File(file.getPath() + ".bin");
+        file.setLastModified(snapshot.lastModified() + 10000);
+
+        // Act
+        LicenseInfoFile compiled = new LicenseInfoFile(file.getPath(), this.log);
+        LicenseInfoFile again = new LicenseInfoFile(file.getPath(), this.log);
+
+        // Verify
+        verify(this.log, times(2)).info("Using compiled licenses " + snapshot);
+        assertSame(compiled.getPolicy(), again.getPolicy());
+        assertEquals("MIT", compiled.getLicenseInfo("mit license", null).getName());
+        assertEquals("BSD", compiled.getLicenseInfo("BSD 2-Clause", null).getName());
+        assertEquals(LicenseInfoStatusEnum.FORBIDDEN,
+            compiled.getLicenseInfo("GNU General Public License v2.0 only", null).getStatus());
+        assertEquals(3, compiled.getPolicy().getLicenseInfos().size());
+    }
+
+    @Test
+    public void ignoresSnapshotOfChangedFile() throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), ("<licenses><valid>"
+            + license("MIT", "MIT License", "https://opensource.org/licenses/MIT")
+            + "</valid></licenses>").getBytes(StandardCharsets.UTF_8));
+        new LicenseInfoFile(file.getPath(), this.log).writeSnapshot(file);
+        File snapshot = new File(file.getPath() + ".bin");
+
+        // Act, change the file but keep it older than the snapshot, as a copy keeping the times may do.
+        Files.write(file.toPath(), "<licenses/>".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(snapshot.lastModified() - 10000);
+        LicenseInfoFile changed = new LicenseInfoFile(file.getPath(), this.log);
+
+        // Verify
+        verify(this.log, never()).info("Using compiled licenses " + snapshot);
+        assertEquals(0, changed.getPolicy().getLicenseInfos().size());
+    }
+
+    @Test
+    public void remembersFoundAndUnknownLicenses() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + license("MIT", "MIT License", "https://opensource.org/licenses/MIT")
+            + "</valid></licenses>");
+
+        // Act
+        LicenseInfo found = file.getLicenseInfoOrUnknown("MIT License", null);
+        LicenseInfo unknown = file.getLicenseInfoOrUnknown("Proprietary", "https://example.com");
+
+        // Verify
+        assertSame(found, file.getLicenseInfoOrUnknown("MIT License", null));
+        assertSame(unknown, file.getLicenseInfoOrUnknown("Proprietary", "https://example.com"));
+        assertEquals(LicenseInfoStatusEnum.UNKNOWN, unknown.getStatus());
+        assertNull(file.getLicenseInfo("Proprietary", "https://example.com"));
+    }
+
+    @Test
+    public void firstLicenseInFileWins() throws Exception {
+        LicenseInfoFile file = load("<licenses><valid>"
+            + license("Apache", "Apache 2", "https://www.apache.org/licenses/LICENSE-2.0")
+            + "</valid><forbidden>"
+            + license("Forbidden", "Apache 2", "https://example.com/forbidden")
+            + "</forbidden></licenses>");
+
+        // Act
+        LicenseInfo byName = file.getLicenseInfo("Apache 2", null);
+        LicenseInfo byUrlBeforeName = file.getLicenseInfo("Forbidden", "https://www.apache.org/licenses/LICENSE-2.0");
+
+        // Verify
+        assertEquals(LicenseInfoStatusEnum.VALID, byName.getStatus());
+        assertEquals(LicenseInfoStatusEnum.VALID, byUrlBeforeName.getStatus());
+        verify(this.log, times(1)).warn(anyString());
+    }
+
+    @Test
+    public void concurrentLookupsGiveSameResultsAsSequential() throws Exception {
+        StringBuilder content = new StringBuilder("<licenses><valid>");
+        for (int i = 0; i < 200; i++) {
+            content.append(license("Valid " + i, "Valid alias " + i, "https://example.com/valid/" + i));
+        }
+        content.append("</valid><forbidden>");
+        for (int i = 0; i < 200; i++) {
+            content.append(license("Forbidden " + i, "Forbidden alias " + i, "https://example.com/forbidden/" + i));
+        }
+        content.append("</forbidden></licenses>");
+
+        LicenseInfoFile file = load(content.toString());
+        LicenseInfoFile sequentialFile = load(content.toString());
+
+        List<String[]> queries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            queries.add(new String[] {"Valid alias " + i, null});
+            queries.add(new String[] {null, "http://example.com/forbidden/" + i + "/"});
+            queries.add(new String[] {"Unknown " + (i % 50), "https://example.com/unknown/" + (i % 50)});
+        }
+
+        List<LicenseInfo> expected = new ArrayList<>();
+        for (String[] query : queries) {
+            expected.add(sequentialFile.getLicenseInfoOrUnknown(query[0], query[1]));
+        }
+
+        // Act
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<LicenseInfo>>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<LicenseInfo> results = new ArrayList<>();
+                    for (int round = 0; round < 50; round++) {
+                        results.clear();
+                        for (String[] query : queries) {
+                            results.add(file.getLicenseInfoOrUnknown(query[0], query[1]));
+                        }
+                    }
+                    return results;
+                }));
+            }
+            start.countDown();
+
+            // Verify
+            List<LicenseInfo> first = futures.get(0).get(60, TimeUnit.SECONDS);
+            for (Future<List<LicenseInfo>> future : futures) {
+                List<LicenseInfo> results = future.get(60, TimeUnit.SECONDS);
+                for (int i = 0; i < queries.size(); i++) {
+                    assertSame(first.get(i), results.get(i));
+                    assertEquals(expected.get(i).getName(), results.get(i).getName());
+                    assertEquals(expected.get(i).getStatus(), results.get(i).getStatus());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LicenseInfoFile load(String content) throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return new LicenseInfoFile(file.getPath(), this.log);
+    }
+
+    private static String license(String name, String alias, String url) {
+        return "<license><name>" + name + "</name>"
+            + "<names><name>" + alias + "</name></names>"
+            + "<urls><url>" + url + "</url></urls></license>";
+    }
+}
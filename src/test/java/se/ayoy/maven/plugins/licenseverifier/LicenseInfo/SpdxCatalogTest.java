@@ -0,0 +1,77 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the SpdxCatalog class.
+ */
+public class SpdxCatalogTest {
+
+    @Test
+    public void resourceIsCompiledFromSource() throws Exception {
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+        try (BufferedReader source = Files.newBufferedReader(
+            Paths.get("src/main/spdx/spdx-licenses.tsv"), StandardCharsets.UTF_8)) {
+            SpdxCatalog.compile(source, compiled);
+        }
+
+        // Verify
+        try (InputStream resource = SpdxCatalog.class.getResourceAsStream(SpdxCatalog.RESOURCE)) {
+            // The compressed bytes may differ with the zlib of the JDK, so the content is compared.
+            assertArrayEquals(
+                "spdx-licenses.bin is out of date, run SpdxCatalog.main to compile spdx-licenses.tsv",
+                decompress(compiled.toByteArray()),
+                decompress(resource.readAllBytes()));
+        }
+    }
+
+    @Test
+    public void compileWritesTheSameHeaderOnEveryJdk() throws Exception {
+        ByteArrayOutputStream compiled = new ByteArrayOutputStream();
+
+        // Act
+        SpdxCatalog.compile(new BufferedReader(new StringReader("MIT\tname\tMIT License\n")), compiled);
+
+        // Verify
+        byte[] header = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 255};
+        byte[] bytes = compiled.toByteArray();
+        assertArrayEquals(header, Arrays.copyOf(bytes, header.length));
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return input.readAllBytes();
+        }
+    }
+
+    @Test
+    public void findsIdByIdNameOrUrl() {
+        SpdxCatalog catalog = SpdxCatalog.getDefault();
+
+        // Act & verify
+        assertTrue(catalog.size() > 500);
+        assertEquals("Apache-2.0", catalog.findId("apache-2.0", null));
+        assertEquals("Apache-2.0", catalog.findId("The Apache Software License, Version 2.0", null));
+        assertEquals("Apache-2.0", catalog.findId(null, "http://www.apache.org/licenses/LICENSE-2.0.txt"));
+        assertEquals("MIT", catalog.findId("Some MIT variant", "https://opensource.org/licenses/MIT"));
+        assertEquals("0BSD", catalog.getId("0bsd"));
+        assertNull(catalog.findId("Proprietary", "https://example.com/license"));
+    }
+}
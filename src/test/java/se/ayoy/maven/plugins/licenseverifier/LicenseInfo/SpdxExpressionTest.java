@@ -0,0 +1,51 @@
+package se.ayoy.maven.plugins.licenseverifier.LicenseInfo;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the SpdxExpression class.
+ */
+public class SpdxExpressionTest {
+
+    @Test
+    public void onlyParsesExpressions() {
+        // Act & verify
+        assertNull(SpdxExpression.parse("Apache-2.0"));
+        assertNull(SpdxExpression.parse("Common Development and Distribution License"));
+        assertNull(SpdxExpression.parse("Apache-2.0 OR"));
+        assertNull(SpdxExpression.parse("(MIT AND BSD-3-Clause"));
+        assertNotNull(SpdxExpression.parse("GPL-2.0-only WITH Classpath-exception-2.0"));
+        assertSame(SpdxExpression.parse("Apache-2.0 OR MIT"), SpdxExpression.parse("Apache-2.0 OR MIT"));
+        assertEquals("(MIT OR (Apache-2.0 AND BSD-3-Clause))",
+            SpdxExpression.parse("MIT OR Apache-2.0 AND BSD-3-Clause").toString());
+    }
+
+    @Test
+    public void evaluatesOrAsBestAndAndAsWorst() {
+        Map<String, LicenseInfoStatusEnum> statuses = new HashMap<>();
+        statuses.put("MIT", LicenseInfoStatusEnum.VALID);
+        statuses.put("LGPL-2.1", LicenseInfoStatusEnum.WARNING);
+        statuses.put("GPL-2.0-only", LicenseInfoStatusEnum.FORBIDDEN);
+        statuses.put("GPL-2.0-only WITH Classpath-exception-2.0", LicenseInfoStatusEnum.VALID);
+
+        // Act & verify
+        assertEquals(LicenseInfoStatusEnum.VALID, evaluate("GPL-2.0-only OR MIT", statuses));
+        assertEquals(LicenseInfoStatusEnum.FORBIDDEN, evaluate("GPL-2.0-only AND MIT", statuses));
+        assertEquals(LicenseInfoStatusEnum.WARNING, evaluate("(MIT OR Unknown-1.0) AND LGPL-2.1", statuses));
+        assertEquals(LicenseInfoStatusEnum.UNKNOWN, evaluate("MIT AND Unknown-1.0", statuses));
+        assertEquals(LicenseInfoStatusEnum.VALID, evaluate("GPL-2.0-only WITH Classpath-exception-2.0", statuses));
+        assertEquals(LicenseInfoStatusEnum.WARNING, evaluate("LGPL-2.1+ WITH Unknown-exception", statuses));
+    }
+
+    private static LicenseInfoStatusEnum evaluate(String name, Map<String, LicenseInfoStatusEnum> statuses) {
+        return SpdxExpression.parse(name).evaluate(id -> statuses.getOrDefault(id, LicenseInfoStatusEnum.UNKNOWN));
+    }
+}
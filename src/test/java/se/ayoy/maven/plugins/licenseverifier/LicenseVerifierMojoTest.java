@@ -17,8 +17,12 @@ import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
 import org.apache.maven.shared.dependency.graph.DependencyNode;
 import org.apache.maven.shared.dependency.graph.traversal.BuildingDependencyNodeVisitor;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -29,12 +33,14 @@ import se.ayoy.maven.plugins.licenseverifier.resolver.LicenseDependencyNodeVisit
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import static java.io.File.separator;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -75,6 +81,9 @@ public class LicenseVerifierMojoTest {
     @InjectMocks
     private LicenseVerifierMojo licenseVerifierMojo;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private Set<Artifact> artifacts = new HashSet<>();
 
     private List<License> licenses = new ArrayList<>();
@@ -86,6 +95,8 @@ public class LicenseVerifierMojoTest {
         assertNotNull("Failed to mock projectBuildingResult", projectBuildingResult);
 
         when(this.session.getProjectBuildingRequest()).thenReturn(this.projectBuildingRequest);
+        when(this.projectBuildingRequest.getRepositoryMerging())
+                .thenReturn(ProjectBuildingRequest.RepositoryMerging.POM_DOMINANT);
         //when(this.project.getDependencyArtifacts()).thenReturn(artifacts);
         when(projectBuilder.build(any(Artifact.class), any(ProjectBuildingRequest.class)))
                 .thenReturn(this.projectBuildingResult);
@@ -143,12 +154,17 @@ public class LicenseVerifierMojoTest {
             public Boolean answer(InvocationOnMock invocation) throws Throwable {
                 Object[] args = invocation.getArguments();
                 BuildingDependencyNodeVisitor nodeVisitor = (BuildingDependencyNodeVisitor) args[0];
-                nodeVisitor.visit(rootNode);
-                nodeVisitor.endVisit(rootNode);
+                invokeRecursive(nodeVisitor, rootNode);
                 return true;
             }
 
-            //private void invokeRecursive(BuildingDependencyNodeVisitor nodeVisitor, )
+            private void invokeRecursive(BuildingDependencyNodeVisitor nodeVisitor, DependencyNode node) {
+                nodeVisitor.visit(node);
+                for (DependencyNode child : node.getChildren()) {
+                    invokeRecursive(nodeVisitor, child);
+                }
+                nodeVisitor.endVisit(node);
+            }
         });
 
         licenseVerifierMojo.setLog(log);
@@ -188,6 +204,261 @@ public class LicenseVerifierMojoTest {
         // Verify
     }
 
+    @Test
+    public void handleOneValidLicenseInParallel() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setResolutionThreads("4");
+
+        // Act
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(3))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void handleOneValidLicenseWithVirtualThreads() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setVirtualThreads("true");
+
+        // Act
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(3))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void resolveEachArtifactOnce() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        List<DependencyNode> children = addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+        addChildren(children.get(0), this.transitiveArtifact4);
+        addChildren(children.get(1), this.transitiveArtifact4);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+
+        // Act
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(1))
+                .build(Mockito.eq(this.transitiveArtifact4), any(ProjectBuildingRequest.class));
+        Mockito.verify(this.projectBuilder, Mockito.times(4))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void resolveEachArtifactOnceInPhases() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        List<DependencyNode> children = addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+        addChildren(children.get(0), this.transitiveArtifact4);
+        addChildren(children.get(1), this.transitiveArtifact4);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setPhasedVerification("true");
+
+        // Act
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(1))
+                .build(Mockito.eq(this.transitiveArtifact4), any(ProjectBuildingRequest.class));
+        Mockito.verify(this.projectBuilder, Mockito.times(4))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void failFastInOnePassStopsAtFirstFailingDirectDependency() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        License forbidden = new License();
+        forbidden.setName("The Forbidden License");
+        forbidden.setUrl("http://www.ayoy.org/licenses/FORBIDDEN");
+
+        List<DependencyNode> children = addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+        addChildren(children.get(0), this.transitiveArtifact4);
+        setLicenses(this.transitiveArtifact2, forbidden);
+        setLicenses(this.transitiveArtifact4, forbidden);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setFailFast("true");
+
+        // Act
+        try {
+            licenseVerifierMojo.execute();
+
+            fail();
+        } catch (MojoExecutionException exc) {
+            assertEquals("One or more artifacts has licenses which is classified as forbidden.", exc.getMessage());
+        }
+
+        // Verify, the direct dependencies transitive1 and transitive2 are resolved before transitive4.
+        InOrder inOrder = Mockito.inOrder(this.projectBuilder);
+        inOrder.verify(this.projectBuilder)
+                .build(Mockito.eq(this.artifact), any(ProjectBuildingRequest.class));
+        inOrder.verify(this.projectBuilder)
+                .build(Mockito.eq(this.transitiveArtifact1), any(ProjectBuildingRequest.class));
+        inOrder.verify(this.projectBuilder)
+                .build(Mockito.eq(this.transitiveArtifact2), any(ProjectBuildingRequest.class));
+        Mockito.verify(this.projectBuilder, Mockito.never())
+                .build(Mockito.eq(this.transitiveArtifact4), any(ProjectBuildingRequest.class));
+        Mockito.verify(this.projectBuilder, Mockito.times(3))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void determineStatusOfDependenciesOfArtifactsWithoutLicensesInPhases() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Forbidden License");
+        license.setUrl("http://www.ayoy.org/licenses/FORBIDDEN");
+
+        List<DependencyNode> children = addChildren(this.rootNode, this.transitiveArtifact1);
+        addChildren(children.get(0), this.transitiveArtifact4);
+        setLicenses(this.transitiveArtifact4, license);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setPhasedVerification("true");
+        licenseVerifierMojo.setFailOnMissing("false");
+
+        // Act
+        try {
+            licenseVerifierMojo.execute();
+
+            fail();
+        } catch (MojoExecutionException exc) {
+            // Verify
+            assertEquals("One or more artifacts has licenses which is classified as forbidden.", exc.getMessage());
+        }
+    }
+
+    @Test
+    public void skipOptionalDependenciesWithChildren() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        List<DependencyNode> children = addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact3);
+        addChildren(children.get(1), this.transitiveArtifact4);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+
+        // Act
+        licenseVerifierMojo.execute();
+
+        // Verify
+        ArgumentCaptor<ArtifactFilter> filter = ArgumentCaptor.forClass(ArtifactFilter.class);
+        Mockito.verify(this.dependencyGraphBuilder).buildDependencyGraph(
+            any(ProjectBuildingRequest.class),
+            filter.capture(),
+            Mockito.anyCollectionOf(org.apache.maven.project.MavenProject.class));
+        assertTrue(filter.getValue().include(this.transitiveArtifact1));
+        assertFalse(filter.getValue().include(this.transitiveArtifact3));
+        Mockito.verify(this.projectBuilder, Mockito.never())
+                .build(Mockito.eq(this.transitiveArtifact4), any(ProjectBuildingRequest.class));
+        Mockito.verify(this.projectBuilder, Mockito.times(2))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void skipWhenUpToDate() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+
+        File upToDateFile = new File(this.temporaryFolder.getRoot(), "verify.fingerprint");
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setUpToDateFile(upToDateFile.getPath());
+
+        // Act
+        licenseVerifierMojo.execute();
+        licenseVerifierMojo.execute();
+
+        // Verify
+        assertTrue(upToDateFile.isFile());
+        Mockito.verify(this.projectBuilder, Mockito.times(3))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+
+        // Act
+        licenseVerifierMojo.setForce("true");
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(6))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
+    @Test
+    public void verifyAgainWhenPomReaderChanges() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        licenses.add(license);
+
+        addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+
+        File upToDateFile = new File(this.temporaryFolder.getRoot(), "verify.fingerprint");
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setUpToDateFile(upToDateFile.getPath());
+        licenseVerifierMojo.execute();
+
+        // Act
+        licenseVerifierMojo.setStreamingPomReader("false");
+        licenseVerifierMojo.execute();
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(6))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
     @Test
     public void missingLicense() throws Exception {
         this.artifacts.add(this.artifact);
@@ -279,6 +550,34 @@ public class LicenseVerifierMojoTest {
         }
     }
 
+    @Test
+    public void failFastOnForbiddenLicense() throws Exception {
+        this.artifacts.add(this.artifact);
+
+        License license = new License();
+        license.setName("The Forbidden License");
+        license.setUrl("http://www.ayoy.org/licenses/FORBIDDEN");
+        licenses.add(license);
+
+        addChildren(this.rootNode, this.transitiveArtifact1, this.transitiveArtifact2);
+
+        licenseVerifierMojo.setLicenseFile(getFilePath("LicenseVerifierMojoTest-OneValid.xml"));
+        licenseVerifierMojo.setFailFast("true");
+
+        // Act
+        try {
+            licenseVerifierMojo.execute();
+
+            fail();
+        } catch (MojoExecutionException exc) {
+            assertEquals("One or more artifacts has licenses which is classified as forbidden.", exc.getMessage());
+        }
+
+        // Verify
+        Mockito.verify(this.projectBuilder, Mockito.times(1))
+                .build(any(Artifact.class), any(ProjectBuildingRequest.class));
+    }
+
     @Test
     public void warningLicense() throws Exception {
         this.artifacts.add(this.artifact);
@@ -440,6 +739,27 @@ public class LicenseVerifierMojoTest {
             "",
             null);
 
+    private void setLicenses(Artifact licensedArtifact, License... artifactLicenses) throws Exception {
+        MavenProject licensedProject = mock(MavenProject.class);
+        when(licensedProject.getLicenses()).thenReturn(Arrays.asList(artifactLicenses));
+        ProjectBuildingResult result = mock(ProjectBuildingResult.class);
+        when(result.getProject()).thenReturn(licensedProject);
+        when(projectBuilder.build(Mockito.eq(licensedArtifact), any(ProjectBuildingRequest.class)))
+                .thenReturn(result);
+    }
+
+    private List<DependencyNode> addChildren(DependencyNode parent, Artifact... childArtifacts) {
+        List<DependencyNode> children = new ArrayList<>();
+        for (Artifact childArtifact : childArtifacts) {
+            DependencyNode child = mock(DependencyNode.class);
+            when(child.getArtifact()).thenReturn(childArtifact);
+            children.add(child);
+        }
+
+        when(parent.getChildren()).thenReturn(children);
+        return children;
+    }
+
     private String getFilePath(String filename) {
         ClassLoader classLoader = getClass().getClassLoader();
         File file = new File(classLoader.getResource(filename).getFile());
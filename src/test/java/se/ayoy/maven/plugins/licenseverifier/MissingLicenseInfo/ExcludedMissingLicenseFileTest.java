@@ -0,0 +1,113 @@
+package se.ayoy.maven.plugins.licenseverifier.MissingLicenseInfo;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests the ExcludedMissingLicenseFile class.
+ */
+public class ExcludedMissingLicenseFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Log log = mock(Log.class);
+
+    @Test
+    public void matchesExactWildcardAndRangeExclusions() throws Exception {
+        ExcludedMissingLicenseFile file = load("<missing>"
+            + dependency("org.example", "exact", "1.0.0")
+            + dependency("org.example", "ranged", "[1.0,2.0)")
+            + dependency("org.example", "ranged", "[1.5,3.0),[4.0,)")
+            + dependency("com.ourcorp.*", "*", "[1.0,)")
+            + dependency("com.other.*", "lib", "2.0")
+            + "</missing>");
+
+        // Act & verify
+        assertTrue(file.isExcluded(artifact("org.example", "exact", "1.0.0")));
+        assertFalse(file.isExcluded(artifact("org.example", "exact", "1.0.1")));
+
+        assertTrue(file.isExcluded(artifact("org.example", "ranged", "1.0")));
+        assertTrue(file.isExcluded(artifact("org.example", "ranged", "2.9.9")));
+        assertFalse(file.isExcluded(artifact("org.example", "ranged", "3.0")));
+        assertTrue(file.isExcluded(artifact("org.example", "ranged", "4.1")));
+        assertFalse(file.isExcluded(artifact("org.example", "ranged", "0.9")));
+
+        assertTrue(file.isExcluded(artifact("com.ourcorp.app", "anything", "1.2")));
+        assertTrue(file.isExcluded(artifact("com.ourcorp.lib.core", "other", "10.0")));
+        assertFalse(file.isExcluded(artifact("com.ourcorp", "anything", "1.2")));
+        assertFalse(file.isExcluded(artifact("com.ourcorp.app", "anything", "0.1")));
+
+        assertTrue(file.isExcluded(artifact("com.other.x", "lib", "2.0")));
+        assertFalse(file.isExcluded(artifact("com.other.x", "other", "2.0")));
+    }
+
+    @Test
+    public void usesSnapshotOfUnchangedFile() throws Exception {
+        File file = this.folder.newFile();
+        StringBuilder content = new StringBuilder("<missing>");
+        for (int i = 0; i < 100; i++) {
+            content.append(dependency("org.example", "exact" + i, "1." + i));
+        }
+        content.append(dependency("com.ourcorp.*", "*", "[1.0,)")).append("</missing>");
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+        File snapshot = new File(file.getPath() + ".bin");
+        new ExcludedMissingLicenseFile(file.getPath(), this.log).writeSnapshot(file);
+
+        // Act, writing a snapshot read from a snapshot keeps everything.
+        new ExcludedMissingLicenseFile(file.getPath(), this.log).writeSnapshot(file);
+        ExcludedMissingLicenseFile compiled = new ExcludedMissingLicenseFile(file.getPath(), this.log);
+
+        // Verify
+        verify(this.log, times(2)).info("Using compiled dependencies to ignore " + snapshot);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(compiled.isExcluded(artifact("org.example", "exact" + i, "1." + i)));
+            assertFalse(compiled.isExcluded(artifact("org.example", "exact" + i, "2." + i)));
+        }
+        assertTrue(compiled.isExcluded(artifact("com.ourcorp.app", "anything", "1.2")));
+        assertFalse(compiled.isExcluded(artifact("org.other", "exact1", "1.1")));
+
+        // A change of the file is seen even if the snapshot is newer.
+        Files.write(file.toPath(), "<missing/>".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(snapshot.lastModified() - 10000);
+        ExcludedMissingLicenseFile changed = new ExcludedMissingLicenseFile(file.getPath(), this.log);
+        assertFalse(changed.isExcluded(artifact("org.example", "exact1", "1.1")));
+    }
+
+    @Test(expected = MojoExecutionException.class)
+    public void failsOnInvalidRange() throws Exception {
+        load("<missing>" + dependency("org.example", "broken", "[2.0,1.0]") + "</missing>");
+    }
+
+    private ExcludedMissingLicenseFile load(String content) throws Exception {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return new ExcludedMissingLicenseFile(file.getPath(), this.log);
+    }
+
+    private static String dependency(String groupId, String artifactId, String version) {
+        return "<dependency><groupId>" + groupId + "</groupId>"
+            + "<artifactId>" + artifactId + "</artifactId>"
+            + "<version>" + version + "</version></dependency>";
+    }
+
+    private static Artifact artifact(String groupId, String artifactId, String version) {
+        return new DefaultArtifact(groupId, artifactId, version, "compile", "jar", "", null);
+    }
+}
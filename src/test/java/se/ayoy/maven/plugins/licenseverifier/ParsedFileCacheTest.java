@@ -0,0 +1,71 @@
+package se.ayoy.maven.plugins.licenseverifier;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the ParsedFileCache class.
+ */
+public class ParsedFileCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    private final ParsedFileCache.Parser<String> parser = content -> {
+        this.parses.incrementAndGet();
+        try {
+            return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException exc) {
+            throw new IllegalStateException(exc);
+        }
+    };
+
+    @Test
+    public void parsesOnlyWhenContentChanges() throws Exception {
+        ParsedFileCache<String> cache = new ParsedFileCache<>();
+        File file = this.folder.newFile("licenses.xml");
+        Files.write(file.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+
+        // Act
+        String first = cache.get(file, file.getPath(), this.parser);
+        String again = cache.get(new File(file.getParentFile(), "./licenses.xml"), file.getPath(), this.parser);
+        Files.write(file.toPath(), "other".getBytes(StandardCharsets.UTF_8));
+        String changed = cache.get(file, file.getPath(), this.parser);
+
+        // Verify
+        assertSame(first, again);
+        assertEquals("other", changed);
+        assertEquals(2, this.parses.get());
+    }
+
+    @Test
+    public void trustsSizeAndTimeOfOldFiles() throws Exception {
+        ParsedFileCache<String> cache = new ParsedFileCache<>();
+        File file = this.folder.newFile("licenses.xml");
+        Files.write(file.toPath(), "first".getBytes(StandardCharsets.UTF_8));
+        long lastModified = System.currentTimeMillis() - 60000;
+        file.setLastModified(lastModified);
+        cache.get(file, file.getPath(), this.parser);
+
+        // Act, change the content but keep the size and time.
+        Files.write(file.toPath(), "other".getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(lastModified);
+        String cached = cache.get(file, file.getPath(), this.parser);
+
+        // Verify
+        assertEquals("first", cached);
+        assertEquals(1, this.parses.get());
+    }
+}
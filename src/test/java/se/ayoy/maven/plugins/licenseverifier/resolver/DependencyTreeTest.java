@@ -0,0 +1,96 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the DependencyTree class.
+ */
+public class DependencyTreeTest {
+
+    @Test
+    public void sharesArtifactsAndKeepsOrder() {
+        DependencyTree tree = new DependencyTree();
+
+        // Act
+        int first = tree.addChild(DependencyTree.ROOT, artifact("first"));
+        int second = tree.addChild(DependencyTree.ROOT, artifact("second"));
+        int firstShared = tree.addChild(first, artifact("shared"));
+        int secondShared = tree.addChild(second, artifact("shared"));
+
+        // Verify
+        assertArrayEquals(new int[] {first, firstShared, second, secondShared}, tree.getNodesDepthFirst());
+        assertArrayEquals(new int[] {first, second, firstShared, secondShared}, tree.getNodesBreadthFirst());
+        assertEquals(2, tree.getDepth(secondShared));
+        assertEquals(second, tree.getParent(secondShared));
+        assertSame(tree.getArtifact(firstShared), tree.getArtifact(secondShared));
+        assertEquals(3, tree.getArtifacts().size());
+    }
+
+    @Test
+    public void retainNodesRemovesSubtrees() {
+        DependencyTree tree = new DependencyTree();
+        int first = tree.addChild(DependencyTree.ROOT, artifact("first"));
+        int removed = tree.addChild(first, artifact("removed"));
+        tree.addChild(removed, artifact("belowRemoved"));
+        int last = tree.addChild(first, artifact("last"));
+        int second = tree.addChild(DependencyTree.ROOT, artifact("second"));
+        List<Integer> tested = new ArrayList<>();
+
+        // Act
+        tree.retainNodes(node -> {
+            tested.add(node);
+            return node != removed;
+        });
+
+        // Verify
+        assertEquals(List.of(first, removed, last, second), tested);
+        assertArrayEquals(new int[] {first, last, second}, tree.getNodesDepthFirst());
+        assertEquals(last, tree.getFirstChild(first));
+        assertEquals(3, tree.getArtifacts().size());
+    }
+
+    @Test
+    public void findsPathsToArtifact() {
+        DependencyTree tree = new DependencyTree();
+        int first = tree.addChild(DependencyTree.ROOT, artifact("first"));
+        int middle = tree.addChild(first, artifact("middle"));
+        int deep = tree.addChild(middle, artifact("shared"));
+        int removed = tree.addChild(first, artifact("removed"));
+        tree.addChild(removed, artifact("shared"));
+        int shallow = tree.addChild(DependencyTree.ROOT, artifact("shared"));
+        tree.retainNodes(node -> node != removed);
+
+        // Act
+        List<int[]> paths = tree.getPaths("groupId:shared:1.0.0");
+        int[] shortestPath = tree.getShortestPath("groupId:shared:1.0.0");
+
+        // Verify
+        assertEquals(2, paths.size());
+        assertArrayEquals(new int[] {first, middle, deep}, paths.get(0));
+        assertArrayEquals(new int[] {shallow}, paths.get(1));
+        assertArrayEquals(new int[] {shallow}, shortestPath);
+        assertNull(tree.getShortestPath("groupId:missing:1.0.0"));
+    }
+
+    private static Artifact artifact(String artifactId) {
+        return new DefaultArtifact(
+            "groupId",
+            artifactId,
+            "1.0.0",
+            "compile",
+            "jar",
+            "",
+            new DefaultArtifactHandler());
+    }
+}
@@ -0,0 +1,211 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the LicenseCache class.
+ */
+public class LicenseCacheTest {
+
+    @Test
+    public void countsHitsAndMisses() {
+        LicenseCache cache = new LicenseCache();
+        List<License> licenses = Collections.singletonList(new License());
+
+        // Act
+        List<License> first = cache.get("groupId:artifactId:1.0.0", () -> licenses);
+        List<License> second = cache.get("groupId:artifactId:1.0.0", () -> null);
+
+        // Verify
+        assertSame(first, second);
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void cachesMissingLicenses() {
+        LicenseCache cache = new LicenseCache();
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("groupId:artifactId:1.0.0", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        List<License> second = cache.get("groupId:artifactId:1.0.0", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+
+        // Verify
+        assertNull(second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void concurrentRequestsShareOneLoad() throws Exception {
+        LicenseCache cache = new LicenseCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<License>>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> cache.get("groupId:artifactId:1.0.0", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return Collections.singletonList(new License());
+            })));
+
+            loading.await(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 7; i++) {
+                futures.add(executor.submit(() -> cache.get("groupId:artifactId:1.0.0", () -> {
+                    loads.incrementAndGet();
+                    return Collections.emptyList();
+                })));
+            }
+            release.countDown();
+
+            // Verify
+            List<License> expected = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<List<License>> future : futures) {
+                assertSame(expected, future.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(7, cache.getHits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void waitersLoadAgainWhenLoadIsCancelled() throws Exception {
+        LicenseCache cache = new LicenseCache();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch cancel = new CountDownLatch(1);
+        List<License> licenses = Collections.singletonList(new License());
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // The load of a module failing fast, cancelled while two other modules wait for it.
+            Future<List<License>> cancelled = executor.submit(() -> cache.get("groupId:artifactId:1.0.0", () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(cancel);
+                throw new CancellationException("Resolution was cancelled.");
+            }));
+
+            loading.await(10, TimeUnit.SECONDS);
+            List<Future<List<License>>> waiters = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                waiters.add(executor.submit(() -> cache.get("groupId:artifactId:1.0.0", () -> {
+                    loads.incrementAndGet();
+                    return licenses;
+                })));
+            }
+
+            while (cache.getHits() < 2) {
+                Thread.sleep(1);
+            }
+
+            // Act
+            cancel.countDown();
+
+            // Verify
+            try {
+                cancelled.get(10, TimeUnit.SECONDS);
+                fail("The cancelled load should not give any licenses.");
+            } catch (ExecutionException exc) {
+                assertTrue(exc.getCause() instanceof CancellationException);
+            }
+
+            for (Future<List<License>> waiter : waiters) {
+                assertEquals(licenses, waiter.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(licenses, cache.get("groupId:artifactId:1.0.0", () -> null));
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void waitersLoadAgainWhenLoadIsInterruptedWaitingForPermit() throws Exception {
+        LicenseCache cache = new LicenseCache();
+        AtomicInteger loads = new AtomicInteger();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        AtomicBoolean interrupted = new AtomicBoolean();
+        CountDownLatch loading = new CountDownLatch(1);
+        Semaphore permits = new Semaphore(0);
+        List<License> licenses = Collections.singletonList(new License());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (ResolutionExecutor resolutionExecutor = new ResolutionExecutor(executor, permits)) {
+            // The load of a module failing fast, cancelled while waiting for a permit to build the project.
+            Future<?> cancelled = executor.submit(() -> {
+                try {
+                    cache.get("groupId:artifactId:1.0.0", () -> {
+                        loads.incrementAndGet();
+                        loading.countDown();
+                        return resolutionExecutor.limited(Collections::<License>emptyList);
+                    });
+                } catch (RuntimeException exc) {
+                    failure.set(exc);
+                    interrupted.set(Thread.currentThread().isInterrupted());
+                }
+            });
+
+            loading.await(10, TimeUnit.SECONDS);
+            Future<List<License>> waiter = executor.submit(() -> cache.get("groupId:artifactId:1.0.0", () -> {
+                loads.incrementAndGet();
+                return licenses;
+            }));
+
+            while (cache.getHits() < 1 || !permits.hasQueuedThreads()) {
+                Thread.sleep(1);
+            }
+
+            // Act
+            cancelled.cancel(true);
+
+            // Verify
+            assertEquals(licenses, waiter.get(10, TimeUnit.SECONDS));
+            assertTrue(failure.get() instanceof CancellationException);
+            assertTrue(interrupted.get());
+            assertEquals(2, loads.get());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exc) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.License;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Test;
+import org.mockito.Mockito;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfo;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoFile;
+import se.ayoy.maven.plugins.licenseverifier.LicenseInfo.LicenseInfoStatusEnum;
+import se.ayoy.maven.plugins.licenseverifier.model.AyoyArtifact;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the LicenseStatusEvaluator class.
+ */
+public class LicenseStatusEvaluatorTest {
+
+    @Test
+    public void evaluatesEachArtifactOnce() throws Exception {
+        LicenseInfoFile licenseInfoFile = Mockito.spy(new LicenseInfoFile(
+            new File(getClass().getClassLoader().getResource("LicenseVerifierMojoTest-OneValid.xml").getFile())
+                .getAbsolutePath(),
+            mock(Log.class)));
+
+        // A dual-licensed chain, where the last artifact is found twice and also with a classifier.
+        DependencyTree tree = new DependencyTree();
+        int first = tree.addChild(DependencyTree.ROOT, artifact("first", ""));
+        int middle = tree.addChild(first, artifact("middle", ""));
+        tree.addChild(middle, artifact("last", ""));
+        tree.addChild(first, artifact("last", ""));
+        tree.addChild(first, artifact("last", "tests"));
+
+        List<License> licenses = Arrays.asList(
+            license("The Apache Software License, Version 2.0"),
+            license("The Warning License"));
+        for (AyoyArtifact artifact : tree.getArtifacts()) {
+            artifact.addLicenses(licenses);
+        }
+
+        LicenseStatusEvaluator evaluator = new LicenseStatusEvaluator(licenseInfoFile);
+
+        // Act
+        for (AyoyArtifact artifact : tree.getArtifacts()) {
+            for (LicenseInfo info : evaluator.getLicenseInfos(artifact)) {
+                artifact.addLicenseInfo(info);
+            }
+        }
+
+        // Verify
+        assertEquals(4, tree.getArtifacts().size());
+        assertEquals(3, evaluator.getEvaluations());
+        Mockito.verify(licenseInfoFile, Mockito.times(6)).getLicenseInfoOrUnknown(anyString(), anyString());
+        for (AyoyArtifact artifact : tree.getArtifacts()) {
+            assertEquals(2, artifact.getLicenseInfos().size());
+            assertEquals(LicenseInfoStatusEnum.VALID, artifact.getLicenseInfos().get(0).getStatus());
+            assertEquals(LicenseInfoStatusEnum.WARNING, artifact.getLicenseInfos().get(1).getStatus());
+            assertTrue(artifact.isLicenseValid(false));
+        }
+    }
+
+    private static Artifact artifact(String artifactId, String classifier) {
+        return new DefaultArtifact(
+            "groupId",
+            artifactId,
+            "1.0.0",
+            "compile",
+            "jar",
+            classifier,
+            new DefaultArtifactHandler());
+    }
+
+    private static License license(String name) {
+        License license = new License();
+        license.setName(name);
+        license.setUrl("http://www.ayoy.org/licenses/" + name.length());
+        return license;
+    }
+}
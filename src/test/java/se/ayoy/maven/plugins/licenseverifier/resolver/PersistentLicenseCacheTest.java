@@ -0,0 +1,106 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests the PersistentLicenseCache class.
+ */
+public class PersistentLicenseCacheTest {
+
+    private static final String GAV = "groupId:artifactId:1.0.0";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Log log = mock(Log.class);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void reusesEntryWhenPomIsUnchanged() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "license-verifier/cache.bin");
+        File pomFile = writePom("<project/>");
+
+        PersistentLicenseCache cache = PersistentLicenseCache.load(cacheFile, log);
+        cache.get(GAV, pomFile, this::loadLicenses);
+        cache.save();
+
+        // Act
+        PersistentLicenseCache reloaded = PersistentLicenseCache.load(cacheFile, log);
+        List<License> licenses = reloaded.get(GAV, pomFile, this::loadLicenses);
+
+        // Verify
+        assertEquals(1, loads.get());
+        assertEquals(1, reloaded.getReused());
+        assertEquals("The Apache Software License, Version 2.0", licenses.get(0).getName());
+        assertEquals("http://www.apache.org/licenses/LICENSE-2.0.txt", licenses.get(0).getUrl());
+        assertNull(licenses.get(0).getComments());
+    }
+
+    @Test
+    public void resolvesAgainWhenPomIsChanged() throws Exception {
+        File cacheFile = new File(folder.getRoot(), "cache.bin");
+        File pomFile = writePom("<project/>");
+
+        PersistentLicenseCache cache = PersistentLicenseCache.load(cacheFile, log);
+        cache.get(GAV, pomFile, this::loadLicenses);
+        cache.save();
+
+        writePom("<project><licenses/></project>");
+
+        // Act
+        PersistentLicenseCache reloaded = PersistentLicenseCache.load(cacheFile, log);
+        reloaded.get(GAV, pomFile, this::loadLicenses);
+
+        // Verify
+        assertEquals(2, loads.get());
+        assertEquals(0, reloaded.getReused());
+    }
+
+    @Test
+    public void discardsCorruptFile() throws Exception {
+        File cacheFile = folder.newFile("cache.bin");
+        Files.write(cacheFile.toPath(), "this is not a cache".getBytes(StandardCharsets.UTF_8));
+        File pomFile = writePom("<project/>");
+
+        // Act
+        PersistentLicenseCache cache = PersistentLicenseCache.load(cacheFile, log);
+        cache.get(GAV, pomFile, this::loadLicenses);
+        cache.save();
+
+        // Verify
+        assertEquals(1, loads.get());
+        assertEquals(1, PersistentLicenseCache.load(cacheFile, log).get(GAV, pomFile, this::loadLicenses).size());
+        assertEquals(1, loads.get());
+    }
+
+    private File writePom(String content) throws Exception {
+        File pomFile = new File(folder.getRoot(), "artifactId-1.0.0.pom");
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return pomFile;
+    }
+
+    private List<License> loadLicenses() {
+        loads.incrementAndGet();
+
+        License license = new License();
+        license.setName("The Apache Software License, Version 2.0");
+        license.setUrl("http://www.apache.org/licenses/LICENSE-2.0.txt");
+        return Collections.singletonList(license);
+    }
+}
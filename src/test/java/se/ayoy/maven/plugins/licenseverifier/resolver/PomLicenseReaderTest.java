@@ -0,0 +1,157 @@
+package se.ayoy.maven.plugins.licenseverifier.resolver;
+
+import org.apache.maven.model.License;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the PomLicenseReader class.
+ */
+public class PomLicenseReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final PomLicenseReader reader = new PomLicenseReader(
+        (groupId, artifactId, version) -> new File(folder.getRoot(), artifactId + "-" + version + ".pom"));
+
+    @Test
+    public void readsDeclaredLicenses() throws Exception {
+        writePom("child", "1.0", "<project>"
+            + "<parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+            + "<licenses><license>"
+            + "<name> The Apache Software License, Version 2.0 </name>"
+            + "<url>http://www.apache.org/licenses/LICENSE-2.0.txt</url>"
+            + "<distribution>repo</distribution>"
+            + "</license></licenses>"
+            + "<this-is-not-read>"
+            + "</project>");
+
+        // Act
+        List<License> licenses = reader.readLicenses("g", "child", "1.0");
+
+        // Verify
+        assertEquals(1, licenses.size());
+        assertEquals("The Apache Software License, Version 2.0", licenses.get(0).getName());
+        assertEquals("http://www.apache.org/licenses/LICENSE-2.0.txt", licenses.get(0).getUrl());
+        assertEquals("repo", licenses.get(0).getDistribution());
+        assertEquals(1, reader.getRead());
+    }
+
+    @Test
+    public void inheritsLicensesFromParent() throws Exception {
+        writePom("child", "1.0", "<project>"
+            + "<parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+            + "<licenses/>"
+            + "<profiles><profile><licenses><license><name>Profile</name></license></licenses></profile></profiles>"
+            + "</project>");
+        writePom("parent", "1", "<project><licenses><license><name>MIT</name></license></licenses></project>");
+
+        // Act
+        List<License> licenses = reader.readLicenses("g", "child", "1.0");
+
+        // Verify
+        assertEquals(1, licenses.size());
+        assertEquals("MIT", licenses.get(0).getName());
+    }
+
+    @Test
+    public void inheritsLicensesFromCachedParent() throws Exception {
+        String parent = "<parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>";
+        writePom("child1", "1.0", "<project>" + parent + "</project>");
+        writePom("child2", "1.0", "<project>" + parent + "</project>");
+        writePom("parent", "1", "<project>"
+            + "<parent><groupId>g</groupId><artifactId>grandparent</artifactId><version>1</version></parent>"
+            + "</project>");
+        writePom("grandparent", "1", "<project><licenses><license><name>MIT</name></license></licenses></project>");
+
+        // Act
+        reader.readLicenses("g", "child1", "1.0");
+        assertTrue(new File(folder.getRoot(), "parent-1.pom").delete());
+        List<License> licenses = reader.readLicenses("g", "child2", "1.0");
+
+        // Verify
+        assertEquals(1, licenses.size());
+        assertEquals("MIT", licenses.get(0).getName());
+        assertEquals(1, reader.getInheritedFromCache());
+        assertEquals(2, reader.getRead());
+    }
+
+    @Test
+    public void noLicensesWithoutParent() throws Exception {
+        writePom("child", "1.0", "<project><artifactId>child</artifactId></project>");
+
+        // Act
+        List<License> licenses = reader.readLicenses("g", "child", "1.0");
+
+        // Verify
+        assertTrue(licenses.isEmpty());
+    }
+
+    @Test
+    public void interpolatedLicenseIsNotSupported() throws Exception {
+        writePom("child", "1.0", "<project><licenses><license><name>${license.name}</name></license></licenses>"
+            + "</project>");
+
+        // Act & verify
+        assertNull(reader.readLicenses("g", "child", "1.0"));
+        assertEquals(1, reader.getUnsupported());
+    }
+
+    @Test
+    public void missingParentIsNotSupported() throws Exception {
+        writePom("child", "1.0", "<project>"
+            + "<parent><groupId>g</groupId><artifactId>parent</artifactId><version>1</version></parent>"
+            + "</project>");
+
+        // Act & verify
+        assertNull(reader.readLicenses("g", "child", "1.0"));
+    }
+
+    @Test
+    public void failedReadIsCancelledWhenInterrupted() throws Exception {
+        // A read cut short by the interrupt, which is not taken as an unsupported POM.
+        writePom("child", "1.0", "<project><licenses></project>");
+
+        // Act
+        Thread.currentThread().interrupt();
+        try {
+            reader.readLicenses("g", "child", "1.0");
+            fail();
+        } catch (CancellationException exc) {
+            // Verify
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertEquals(0, reader.getUnsupported());
+    }
+
+    @Test
+    public void doctypeIsNotSupported() throws Exception {
+        writePom("child", "1.0", "<?xml version=\"1.0\"?>"
+            + "<!DOCTYPE project [<!ENTITY name SYSTEM \"file:///etc/passwd\">]>"
+            + "<project><licenses><license><name>&name;</name></license></licenses></project>");
+
+        // Act & verify
+        assertNull(reader.readLicenses("g", "child", "1.0"));
+    }
+
+    private void writePom(String artifactId, String version, String content) throws Exception {
+        File pomFile = new File(folder.getRoot(), artifactId + "-" + version + ".pom");
+        Files.write(pomFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}